@@ -0,0 +1,90 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.SalesTrendPoint;
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingSnapshot;
+import com.example.demo.model.Booking;
+import com.example.demo.service.AnalyticsService;
+import com.example.demo.service.BookingAnalyticsState;
+import com.example.demo.service.SalesTrendService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard and sales trend calls, and applying one booking change to the in-memory analytics
+ * counters (what every booking commit costs).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AnalyticsBenchmark {
+
+    private AnalyticsService analyticsService;
+    private SalesTrendService salesTrendService;
+    private BookingAnalyticsState analyticsState;
+
+    private BookingChangedEvent complete;
+    private BookingChangedEvent reopen;
+    private boolean completed;
+
+    @Setup
+    public void setUp(LocalApplication app) {
+        analyticsService = app.bean(AnalyticsService.class);
+        salesTrendService = app.bean(SalesTrendService.class);
+        analyticsState = app.bean(BookingAnalyticsState.class);
+
+        Booking booking = new Booking();
+        booking.setBookingId(LocalApplication.FIRST_BOOKING_ID);
+        booking.setBookingDate(LocalDate.now().minusDays(40));
+        booking.setBookingTime(LocalTime.of(10, 0));
+        booking.setTotalPrice(60.0);
+        booking.setStatus("Confirmed");
+        BookingSnapshot confirmed = BookingSnapshot.of(booking);
+        booking.setStatus("Completed");
+        BookingSnapshot done = BookingSnapshot.of(booking);
+        complete = new BookingChangedEvent(BookingChangedEvent.Type.STATUS_CHANGED, confirmed, done);
+        reopen = new BookingChangedEvent(BookingChangedEvent.Type.STATUS_CHANGED, done, confirmed);
+    }
+
+    @Benchmark
+    public Map<String, Object> dashboardStats() {
+        return analyticsService.getDashboardStats();
+    }
+
+    @Benchmark
+    public Map<String, Double> monthlySales() {
+        return analyticsService.getSalesTrends();
+    }
+
+    /**
+     * A year of weeks: closed weeks come from the cache, the current week from the database
+     */
+    @Benchmark
+    public List<SalesTrendPoint> weeklyTrend() {
+        LocalDate today = LocalDate.now();
+        return salesTrendService.getTrend(SalesTrendService.Granularity.WEEK, today.minusYears(1), today);
+    }
+
+    @Benchmark
+    public void applyChange() {
+        analyticsState.onBookingChanged(completed ? reopen : complete);
+        completed = !completed;
+    }
+}
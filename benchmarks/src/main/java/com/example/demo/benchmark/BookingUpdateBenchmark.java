@@ -0,0 +1,50 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Booking;
+import com.example.demo.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingService.updateBooking end to end: load, field merge, save, outbox append and the
+ * after-commit listeners. Each call updates the next seeded booking.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookingUpdateBenchmark {
+
+    private BookingService bookingService;
+    private int bookings;
+    private int next;
+    private Booking details;
+
+    @Setup
+    public void setUp(LocalApplication app) {
+        bookingService = app.bean(BookingService.class);
+        bookings = app.bookings;
+        details = new Booking();
+        details.setNotes("Bring the wheelchair");
+        details.setPickupAddress("Blk 123 Ang Mo Kio Ave 3, #05-12");
+    }
+
+    @Benchmark
+    public Booking updateNotes() {
+        next = (next + 1) % bookings;
+        details.setTotalPrice(40.0 + next % 10);
+        return bookingService.updateBooking(LocalApplication.FIRST_BOOKING_ID + next, details);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.service.BookingAnalyticsState;
+import com.example.demo.service.CaregiverScheduleIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The application on the "local" profile (in-memory H2, replica routing on), without the web
+ * server, seeded with {@code bookings} bookings spread over the last two years.
+ */
+@State(Scope.Benchmark)
+public class LocalApplication {
+
+    static final int FIRST_BOOKING_ID = 1_000_000;
+
+    private static final String[] STATUSES = {"Pending", "Confirmed", "In-Progress", "Completed", "Completed", "Cancelled"};
+
+    @Param({"10000"})
+    public int bookings;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("local")
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN",
+                        "outbox.enabled=false") // no dispatcher thread competing with the measured one
+                .run();
+        seed();
+        bean(BookingAnalyticsState.class).rebuild();
+        bean(CaregiverScheduleIndex.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed() {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>(bookings);
+        for (int i = 0; i < bookings; i++) {
+            String status = STATUSES[random.nextInt(STATUSES.length)];
+            rows.add(new Object[] {
+                    FIRST_BOOKING_ID + i,
+                    1 + random.nextInt(3),
+                    1 + random.nextInt(2),
+                    random.nextInt(3) == 0 ? null : 1 + random.nextInt(2),
+                    Date.valueOf(today.minusDays(random.nextInt(730))),
+                    Time.valueOf(LocalTime.of(8 + random.nextInt(10), random.nextBoolean() ? 0 : 30)),
+                    status,
+                    "Completed".equals(status) ? "Paid" : "Unpaid",
+                    40.0 + random.nextInt(9) * 10
+            });
+        }
+        bean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO booking (booking_id, user_id, service_id, caregiver_id, booking_date, booking_time, " +
+                "status, payment_status, total_price, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", rows);
+    }
+}
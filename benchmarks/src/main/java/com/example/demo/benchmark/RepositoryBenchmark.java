@@ -0,0 +1,80 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.BookingListItem;
+import com.example.demo.dto.BookingPage;
+import com.example.demo.model.Booking;
+import com.example.demo.projection.BookingStatusAggregate;
+import com.example.demo.projection.SalesBucketAggregate;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking reads against the embedded database, through the repository and service layers
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RepositoryBenchmark {
+
+    private BookingRepository bookingRepository;
+    private BookingService bookingService;
+    private int bookings;
+    private int next;
+
+    @Setup
+    public void setUp(LocalApplication app) {
+        bookingRepository = app.bean(BookingRepository.class);
+        bookingService = app.bean(BookingService.class);
+        bookings = app.bookings;
+    }
+
+    @Benchmark
+    public Optional<Booking> findById() {
+        next = (next + 1) % bookings;
+        return bookingService.getBookingById(LocalApplication.FIRST_BOOKING_ID + next);
+    }
+
+    @Benchmark
+    public List<BookingListItem> allListItems() {
+        return bookingService.getAllBookings();
+    }
+
+    @Benchmark
+    public List<BookingListItem> listItemsByStatus() {
+        return bookingService.getBookingsByStatus("Pending");
+    }
+
+    @Benchmark
+    public BookingPage<BookingListItem> firstPage() {
+        return bookingService.getAllBookingsPage(50, null);
+    }
+
+    @Benchmark
+    public List<BookingStatusAggregate> aggregateByStatus() {
+        return bookingRepository.aggregateByStatus();
+    }
+
+    @Benchmark
+    public List<SalesBucketAggregate> weeklySalesBuckets() {
+        LocalDate today = LocalDate.now();
+        return bookingRepository.aggregateCompletedSalesByBucket("week", today.minusYears(1), today);
+    }
+}
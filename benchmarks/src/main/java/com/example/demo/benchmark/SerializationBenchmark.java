@@ -0,0 +1,136 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Booking;
+import com.example.demo.model.Caregiver;
+import com.example.demo.model.Service;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of entity lists, written to a stream the way a response body is streamed.
+ * Uses a plain JsonMapper; the application sets no spring.jackson options.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final CountingSink sink = new CountingSink();
+
+    private List<Booking> bookings;
+    private List<Caregiver> caregivers;
+    private List<Service> services;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.of(2026, 3, 1, 9, 0);
+        bookings = new ArrayList<>(size);
+        caregivers = new ArrayList<>(size);
+        services = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Booking booking = new Booking();
+            booking.setBookingId(i);
+            booking.setUserId(i % 500);
+            booking.setServiceId(i % 20);
+            booking.setCaregiverId(i % 3 == 0 ? null : i % 80);
+            booking.setBookingDate(LocalDate.of(2026, 1, 1).plusDays(i % 365));
+            booking.setBookingTime(LocalTime.of(8 + i % 10, 30));
+            booking.setStatus("Confirmed");
+            booking.setNotes("Please ring the bell twice");
+            booking.setPickupAddress("Blk " + i + " Ang Mo Kio Ave 3, #05-12");
+            booking.setDestinationAddress("Tan Tock Seng Hospital");
+            booking.setTotalPrice(60.0);
+            booking.setCreatedAt(now);
+            booking.setUpdatedAt(now);
+            bookings.add(booking);
+
+            Caregiver caregiver = new Caregiver();
+            caregiver.setCaregiverId(i);
+            caregiver.setUserId(i);
+            caregiver.setName("Caregiver " + i);
+            caregiver.setPhone("9" + (1000000 + i));
+            caregiver.setEmail("caregiver" + i + "@example.com");
+            caregiver.setIsAvailable(i % 4 != 0);
+            caregiver.setQualifications("RN, First Aid");
+            caregiver.setSpecialties("dementia care, wheelchair transfer");
+            caregiver.setExperienceYears(i % 15);
+            caregiver.setBio("Experienced with elderly clients and post-operative care.");
+            caregiver.setAvailableHours("Mon-Fri 08:00-18:00");
+            caregiver.setRating(BigDecimal.valueOf(35 + i % 15, 1));
+            caregiver.setCompanyId(1 + i % 5);
+            caregiver.setCreatedAt(now);
+            caregivers.add(caregiver);
+
+            Service service = new Service();
+            service.setServiceId(i);
+            service.setServiceName("Service " + i);
+            service.setDescription("Escort to a clinic appointment and back");
+            service.setBasePrice(40.0 + i % 10);
+            service.setDurationMinutes(60 + 30 * (i % 4));
+            service.setCategoryId(1 + i % 6);
+            services.add(service);
+        }
+    }
+
+    @Benchmark
+    public long bookings() {
+        jsonMapper.writeValue(sink, bookings);
+        return sink.count;
+    }
+
+    @Benchmark
+    public long caregivers() {
+        jsonMapper.writeValue(sink, caregivers);
+        return sink.count;
+    }
+
+    @Benchmark
+    public long services() {
+        jsonMapper.writeValue(sink, services);
+        return sink.count;
+    }
+
+    /**
+     * Discards the JSON and counts its bytes; unlike OutputStream.nullOutputStream() it stays
+     * usable after the mapper closes it
+     */
+    private static final class CountingSink extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
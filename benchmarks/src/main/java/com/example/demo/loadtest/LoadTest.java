@@ -0,0 +1,247 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.DemoApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test: starts the application on a random port, seeds a data set, then runs a
+ * weighted mix of requests from many concurrent clients and reports throughput and latency
+ * percentiles per endpoint.
+ *
+ * Options (--name=value): clients, duration and warmup (seconds), think-ms, users, caregivers,
+ * services, bookings, mix (e.g. list=50,get=20,create=10,clock-in=10,clock-out=10) and profile.
+ * Every other --option is passed to the application, e.g. --spring.datasource.hikari.maximum-pool-size=10.
+ * The default profile is "local" (in-memory H2); any other profile needs --spring.datasource.url
+ * so a load test is never pointed at the configured database by accident.
+ */
+public final class LoadTest {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("clients", "100");
+        DEFAULTS.put("duration", "60");
+        DEFAULTS.put("warmup", "10");
+        DEFAULTS.put("think-ms", "0");
+        DEFAULTS.put("users", "1000");
+        DEFAULTS.put("caregivers", "100");
+        DEFAULTS.put("services", "20");
+        DEFAULTS.put("bookings", "10000");
+        DEFAULTS.put("mix", "");
+        DEFAULTS.put("profile", "local");
+    }
+
+    private LoadTest() {
+    }
+
+    private static void appArgDefault(List<String> appArgs, String name, String value) {
+        if (appArgs.stream().noneMatch(arg -> arg.startsWith("--" + name + "="))) {
+            appArgs.add(0, "--" + name + "=" + value);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] option = arg.startsWith("--") ? arg.substring(2).split("=", 2) : new String[0];
+            if (option.length == 2 && DEFAULTS.containsKey(option[0])) {
+                options.put(option[0], option[1]);
+            } else {
+                appArgs.add(arg);
+            }
+        }
+        String profile = options.get("profile");
+        if (!"local".equals(profile) && appArgs.stream().noneMatch(arg -> arg.startsWith("--spring.datasource.url="))) {
+            throw new IllegalArgumentException("--profile=" + profile + " needs an explicit --spring.datasource.url");
+        }
+        Map<Operation, Integer> mix = mix(options.get("mix"));
+        int clients = Integer.parseInt(options.get("clients"));
+        long thinkMs = Long.parseLong(options.get("think-ms"));
+
+        // command-line arguments, so they win over application.properties; the caller's own still win
+        appArgDefault(appArgs, "server.port", "0");
+        appArgDefault(appArgs, "logging.level.com.example", "WARN");
+        appArgDefault(appArgs, "logging.level.booking-audit", "WARN");
+        appArgDefault(appArgs, "spring.main.banner-mode", "off");
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(DemoApplication.class);
+        if (!profile.isEmpty()) {
+            builder.profiles(profile);
+        }
+        try (ConfigurableApplicationContext app = builder.run(appArgs.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port + app.getEnvironment().getProperty("server.servlet.context-path", "");
+            long seedStart = System.nanoTime();
+            Workload workload = Workload.seed(app, baseUrl, Integer.parseInt(options.get("users")),
+                    Integer.parseInt(options.get("caregivers")), Integer.parseInt(options.get("services")),
+                    Integer.parseInt(options.get("bookings")));
+            System.out.printf("Seeded %s users, %s caregivers, %s services, %s bookings in %d ms%n",
+                    options.get("users"), options.get("caregivers"), options.get("services"), options.get("bookings"),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+            mix.keySet().forEach(operation -> stats.put(operation, new Stats()));
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("warmup")));
+            long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("duration")));
+            long measureFrom = System.nanoTime() + warmupNanos;
+            long end = measureFrom + durationNanos;
+            ClientThreads threads = clientThreads();
+            System.out.printf("Running %d clients on %s for %ds after a %ds warm-up against %s%n",
+                    clients, threads.kind, TimeUnit.NANOSECONDS.toSeconds(durationNanos),
+                    TimeUnit.NANOSECONDS.toSeconds(warmupNanos), baseUrl);
+            for (int i = 0; i < clients; i++) {
+                threads.executor.execute(() -> runClient(http, workload, mix, stats, thinkMs, measureFrom, end));
+            }
+            threads.executor.shutdown();
+            threads.executor.awaitTermination(warmupNanos + durationNanos + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+            report(stats, durationNanos);
+            reportPools(app.getBean(MeterRegistry.class));
+        }
+    }
+
+    private static void runClient(HttpClient http, Workload workload, Map<Operation, Integer> mix,
+                                  Map<Operation, Stats> stats, long thinkMs, long measureFrom, long end) {
+        Random random = ThreadLocalRandom.current();
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        while (System.nanoTime() < end) {
+            Operation operation = pick(mix, random.nextInt(totalWeight));
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = http.send(workload.request(operation, random), HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (start >= measureFrom) {
+                stats.get(operation).record(status, System.nanoTime() - start);
+            }
+            if (thinkMs > 0) {
+                try {
+                    Thread.sleep(thinkMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix, int roll) {
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Roll beyond the total weight");
+    }
+
+    private static Map<Operation, Integer> mix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        if (spec.isBlank()) {
+            for (Operation operation : Operation.values()) {
+                mix.put(operation, operation.defaultWeight);
+            }
+            return mix;
+        }
+        for (String part : spec.split(",")) {
+            String[] entry = part.trim().split("=", 2);
+            Operation operation = null;
+            for (Operation candidate : Operation.values()) {
+                if (candidate.key().equals(entry[0])) {
+                    operation = candidate;
+                }
+            }
+            if (operation == null || entry.length != 2) {
+                throw new IllegalArgumentException("Unknown mix entry '" + part + "'; operations are " +
+                        Arrays.stream(Operation.values()).map(Operation::key).toList());
+            }
+            int weight = Integer.parseInt(entry[1]);
+            if (weight > 0) {
+                mix.put(operation, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no operations");
+        }
+        return mix;
+    }
+
+    private static void report(Map<Operation, Stats> stats, long durationNanos) {
+        double seconds = durationNanos / 1e9;
+        String format = "%-44s %9s %9s %8s %8s %8s %8s %8s %9s %9s %9s %9s%n";
+        System.out.println();
+        System.out.printf(format, "Endpoint", "Requests", "Req/s", "2xx/3xx", "4xx", "503", "5xx", "No resp",
+                "p50 ms", "p95 ms", "p99 ms", "max ms");
+        Stats total = new Stats();
+        stats.forEach((operation, s) -> {
+            print(format, operation.endpoint, s, seconds);
+            total.add(s);
+        });
+        print(format, "All", total, seconds);
+    }
+
+    private static void print(String format, String name, Stats s, double seconds) {
+        System.out.printf(format, name, s.count(), String.format("%.1f", s.count() / seconds), s.success(),
+                s.clientErrors(), s.shed(), s.serverErrors(), s.failures(),
+                String.format("%.1f", s.percentileMillis(50)), String.format("%.1f", s.percentileMillis(95)),
+                String.format("%.1f", s.percentileMillis(99)), String.format("%.1f", s.maxMillis()));
+    }
+
+    /**
+     * Server side: how long requests waited for a pooled connection
+     */
+    private static void reportPools(MeterRegistry registry) {
+        System.out.println();
+        for (Timer acquire : registry.find("hikaricp.connections.acquire").timers()) {
+            String pool = acquire.getId().getTag("pool");
+            Double max = registry.find("hikaricp.connections.max").tag("pool", pool).gauges().stream()
+                    .findFirst().map(gauge -> gauge.value()).orElse(Double.NaN);
+            System.out.printf("Pool %s (%.0f connections): %d acquisitions, mean wait %.2f ms, max wait %.2f ms%n",
+                    pool, max, acquire.count(), acquire.mean(TimeUnit.MILLISECONDS), acquire.max(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private record ClientThreads(ExecutorService executor, String kind) {
+    }
+
+    /**
+     * One virtual thread per client on Java 21+, a platform thread per client on Java 17
+     */
+    private static ClientThreads clientThreads() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new ClientThreads(executor, "virtual threads");
+        } catch (ReflectiveOperationException e) {
+            return new ClientThreads(Executors.newCachedThreadPool(), "platform threads");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.loadtest;
+
+/**
+ * The requests a load test client makes, with their default share of the mix (percent)
+ */
+enum Operation {
+    LIST("GET /api/bookings?limit=50", 30),
+    GET("GET /api/bookings/{id}", 15),
+    CREATE("POST /api/bookings", 10),
+    ASSIGN("POST /api/bookings/{id}/assign-caregiver", 10),
+    CLOCK_IN("POST /api/bookings/{id}/clock-in", 10),
+    CLOCK_OUT("POST /api/bookings/{id}/clock-out", 10),
+    SUMMARY("GET /api/analytics/summary", 10),
+    TRENDS("GET /api/analytics/trends", 5);
+
+    final String endpoint;
+    final int defaultWeight;
+
+    Operation(String endpoint, int defaultWeight) {
+        this.endpoint = endpoint;
+        this.defaultWeight = defaultWeight;
+    }
+
+    /**
+     * The name used in --mix, e.g. clock-in
+     */
+    String key() {
+        return name().toLowerCase().replace('_', '-');
+    }
+}
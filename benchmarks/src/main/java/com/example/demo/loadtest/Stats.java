@@ -0,0 +1,73 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and response codes of one operation, recorded concurrently by every client
+ */
+final class Stats {
+
+    private final Histogram latencyMicros = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(5), 3);
+    private final LongAdder success = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param status HTTP status, or -1 if the request failed without a response
+     */
+    void record(int status, long elapsedNanos) {
+        latencyMicros.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), latencyMicros.getHighestTrackableValue()));
+        if (status < 0) failures.increment();
+        else if (status == 503) shed.increment();
+        else if (status >= 500) serverErrors.increment();
+        else if (status >= 400) clientErrors.increment();
+        else success.increment();
+    }
+
+    long count() {
+        return latencyMicros.getTotalCount();
+    }
+
+    long success() {
+        return success.sum();
+    }
+
+    long clientErrors() {
+        return clientErrors.sum();
+    }
+
+    long shed() {
+        return shed.sum();
+    }
+
+    long serverErrors() {
+        return serverErrors.sum();
+    }
+
+    long failures() {
+        return failures.sum();
+    }
+
+    double percentileMillis(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMillis() {
+        return latencyMicros.getMaxValue() / 1000.0;
+    }
+
+    void add(Stats other) {
+        latencyMicros.add(other.latencyMicros);
+        success.add(other.success());
+        clientErrors.add(other.clientErrors());
+        shed.add(other.shed());
+        serverErrors.add(other.serverErrors());
+        failures.add(other.failures());
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.service.BookingAnalyticsState;
+import com.example.demo.service.CaregiverMatchingService;
+import com.example.demo.service.CaregiverScheduleIndex;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Time;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Seeded users, caregivers, services and bookings (with pickup coordinates), and the requests made against them
+ */
+final class Workload {
+
+    private static final int FIRST_USER_ID = 100_000;
+    private static final int FIRST_BOOKING_ID = 1_000_000;
+    private static final String[] STATUSES = {"Pending", "Confirmed", "Confirmed", "In-Progress", "Completed", "Completed", "Cancelled"};
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final int users;
+    private final int bookings;
+    private final List<Integer> serviceIds;
+    private final List<Integer> caregiverIds;
+    private final List<Integer> unassigned;
+    private final AtomicInteger nextUnassigned = new AtomicInteger();
+
+    private Workload(String baseUrl, int users, int bookings, List<Integer> serviceIds,
+                     List<Integer> caregiverIds, List<Integer> unassigned) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.bookings = bookings;
+        this.serviceIds = serviceIds;
+        this.caregiverIds = caregiverIds;
+        this.unassigned = unassigned;
+    }
+
+    /**
+     * Insert the data set directly, then reload the application's in-memory state from it
+     */
+    static Workload seed(ApplicationContext app, String baseUrl, int users, int caregivers, int services, int bookings) {
+        JdbcTemplate jdbc = app.getBean(JdbcTemplate.class);
+        Random random = new Random(42);
+
+        List<Object[]> userRows = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            userRows.add(new Object[] {FIRST_USER_ID + i, "Load Test User " + i});
+        }
+        jdbc.batchUpdate("INSERT INTO app_user (user_id, name) VALUES (?, ?)", userRows);
+
+        KeyHolder category = new GeneratedKeyHolder();
+        jdbc.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO service_category (category_name, description) VALUES (?, ?)", new String[] {"category_id"});
+            statement.setString(1, "Load Test");
+            statement.setString(2, "Seeded by the load test");
+            return statement;
+        }, category);
+        int categoryId = category.getKey().intValue();
+        List<Object[]> serviceRows = new ArrayList<>();
+        for (int i = 0; i < services; i++) {
+            serviceRows.add(new Object[] {"Load Test Service " + i, 40.0 + i % 5 * 10, 60 + i % 4 * 30, categoryId});
+        }
+        jdbc.batchUpdate("INSERT INTO service (service_name, base_price, duration_minutes, category_id, is_active) " +
+                "VALUES (?, ?, ?, ?, true)", serviceRows);
+        List<Integer> serviceIds = jdbc.queryForList("SELECT service_id FROM service WHERE category_id = ?", Integer.class, categoryId);
+
+        List<Object[]> caregiverRows = new ArrayList<>();
+        for (int i = 0; i < caregivers; i++) {
+            caregiverRows.add(new Object[] {FIRST_USER_ID + i % users, "Load Test Caregiver " + i,
+                    "dementia care, wheelchair transfer", 1 + i % 20, 3.5 + i % 15 / 10.0});
+        }
+        jdbc.batchUpdate("INSERT INTO caregiver (user_id, name, available, specialties, experience, rating, company_id) " +
+                "VALUES (?, ?, true, ?, ?, ?, 1)", caregiverRows);
+        List<Integer> caregiverIds = jdbc.queryForList("SELECT caregiver_id FROM caregiver WHERE user_id >= ?", Integer.class, FIRST_USER_ID);
+
+        LocalDate today = LocalDate.now();
+        List<Object[]> bookingRows = new ArrayList<>();
+        List<Integer> unassigned = new ArrayList<>();
+        for (int i = 0; i < bookings; i++) {
+            int bookingId = FIRST_BOOKING_ID + i;
+            Integer caregiverId = random.nextInt(3) == 0 ? null : caregiverIds.get(random.nextInt(caregiverIds.size()));
+            if (caregiverId == null) {
+                unassigned.add(bookingId);
+            }
+            String status = STATUSES[random.nextInt(STATUSES.length)];
+            bookingRows.add(new Object[] {bookingId, FIRST_USER_ID + random.nextInt(users),
+                    serviceIds.get(random.nextInt(serviceIds.size())), caregiverId,
+                    Date.valueOf(today.plusDays(random.nextInt(425) - 365)),
+                    Time.valueOf(LocalTime.of(8 + random.nextInt(10), random.nextBoolean() ? 0 : 30)),
+                    status, caregiverId != null ? "Accepted" : "Pending",
+                    "Completed".equals(status) ? "Paid" : "Unpaid", 40.0 + random.nextInt(9) * 10,
+                    randomLat(random), randomLon(random)});
+        }
+        jdbc.batchUpdate("INSERT INTO booking (booking_id, user_id, service_id, caregiver_id, booking_date, booking_time, " +
+                "status, caregiver_status, payment_status, total_price, pickup_lat, pickup_lon, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", bookingRows);
+
+        app.getBean(BookingAnalyticsState.class).rebuild();
+        app.getBean(CaregiverScheduleIndex.class).rebuild();
+        app.getBean(CaregiverMatchingService.class).invalidate();
+        CacheManager cacheManager = app.getBean(CacheManager.class);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        return new Workload(baseUrl, users, bookings, serviceIds, caregiverIds, unassigned);
+    }
+
+    HttpRequest request(Operation operation, Random random) {
+        return switch (operation) {
+            case LIST -> get("/api/bookings?limit=50");
+            case GET -> get("/api/bookings/" + randomBooking(random));
+            case CREATE -> post("/api/bookings", "{\"userId\":" + (FIRST_USER_ID + random.nextInt(users)) +
+                    ",\"serviceId\":" + serviceIds.get(random.nextInt(serviceIds.size())) +
+                    ",\"bookingDate\":\"" + LocalDate.now().plusDays(1 + random.nextInt(60)) +
+                    "\",\"bookingTime\":\"" + LocalTime.of(8 + random.nextInt(10), 0) + ":00\",\"totalPrice\":60.0}");
+            // unassigned bookings first; once they run out, assignments are refused with 409
+            case ASSIGN -> post("/api/bookings/" + nextUnassigned(random) + "/assign-caregiver?caregiverId=" +
+                    caregiverIds.get(random.nextInt(caregiverIds.size())), null);
+            // clock events come from anywhere in the pickup area, so they go through the geofence check
+            case CLOCK_IN -> post("/api/bookings/" + randomBooking(random) + "/clock-in?location=Load%20test" + randomPosition(random), null);
+            case CLOCK_OUT -> post("/api/bookings/" + randomBooking(random) + "/clock-out?location=Load%20test" + randomPosition(random), null);
+            case SUMMARY -> get("/api/analytics/summary");
+            case TRENDS -> get("/api/analytics/trends?granularity=week");
+        };
+    }
+
+    private int randomBooking(Random random) {
+        return FIRST_BOOKING_ID + random.nextInt(bookings);
+    }
+
+    private static double randomLat(Random random) {
+        return 1.28 + random.nextDouble() * 0.16;
+    }
+
+    private static double randomLon(Random random) {
+        return 103.70 + random.nextDouble() * 0.28;
+    }
+
+    private static String randomPosition(Random random) {
+        return String.format(Locale.ROOT, "&lat=%.5f&lon=%.5f", randomLat(random), randomLon(random));
+    }
+
+    private int nextUnassigned(Random random) {
+        int next = nextUnassigned.getAndIncrement();
+        return next < unassigned.size() ? unassigned.get(next) : randomBooking(random);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+        if (json == null) {
+            return builder.POST(HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+}
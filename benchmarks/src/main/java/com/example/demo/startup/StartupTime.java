@@ -0,0 +1,101 @@
+package com.example.demo.startup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first response: launches the application command given after "--", requests url until
+ * it answers with a 2xx, and reports the time from launch to that answer. With lazy initialization
+ * the first request also pays for creating the beans it uses, so this covers both startup and the
+ * first request, unlike the "Started ... in" line.
+ *
+ * Options (--name=value, before "--"): runs (default 5), url (default
+ * http://localhost:8081/user-ws/api/bookings?limit=20), timeout in seconds (120) and log, a file
+ * for the application's output (discarded by default). The application must listen on the url's port.
+ */
+public final class StartupTime {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("runs", "5");
+        DEFAULTS.put("url", "http://localhost:8081/user-ws/api/bookings?limit=20");
+        DEFAULTS.put("timeout", "120");
+        DEFAULTS.put("log", "");
+    }
+
+    private StartupTime() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        int separator = Arrays.asList(args).indexOf("--");
+        if (separator < 0 || separator == args.length - 1) {
+            throw new IllegalArgumentException("Usage: StartupTime [--runs=5] [--url=...] -- <command to start the application>");
+        }
+        for (String arg : Arrays.copyOfRange(args, 0, separator)) {
+            String[] option = arg.startsWith("--") ? arg.substring(2).split("=", 2) : new String[0];
+            if (option.length != 2 || !DEFAULTS.containsKey(option[0])) {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+            options.put(option[0], option[1]);
+        }
+        List<String> command = Arrays.asList(args).subList(separator + 1, args.length);
+        int runs = Integer.parseInt(options.get("runs"));
+        URI url = URI.create(options.get("url"));
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("timeout")));
+        String log = options.get("log");
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(url).timeout(Duration.ofSeconds(30)).GET().build();
+        System.out.println("Command: " + String.join(" ", command));
+        System.out.println("First response from " + url + ", " + runs + " runs");
+
+        List<Long> millis = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+            builder.redirectOutput(log.isEmpty() ? ProcessBuilder.Redirect.DISCARD
+                    : ProcessBuilder.Redirect.appendTo(new File(log)));
+            long start = System.nanoTime();
+            Process process = builder.start();
+            try {
+                int status = 0;
+                while (status < 200 || status >= 300) {
+                    if (!process.isAlive()) {
+                        throw new IllegalStateException("The application exited with status " + process.exitValue());
+                    }
+                    if (System.nanoTime() - start > timeoutNanos) {
+                        throw new IllegalStateException("No response within " + options.get("timeout") + " s");
+                    }
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (IOException e) {
+                        Thread.sleep(10); // not listening yet
+                    }
+                }
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                millis.add(elapsed);
+                System.out.printf("Run %d: %d ms%n", run, elapsed);
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+        millis.sort(null);
+        System.out.printf("Median %d ms, min %d ms, max %d ms%n",
+                millis.get(millis.size() / 2), millis.get(0), millis.get(millis.size() - 1));
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control per endpoint class, so a few slow requests cannot take every pooled
+ * connection away from caregivers clocking in and out.
+ *
+ * Each API request is classed as CRITICAL (clock-in, clock-out), HEAVY (analytics, export,
+ * batch writes, matching) or INTERACTIVE (everything else). Every class has its own budget of
+ * concurrent requests and a bounded queue; a request that finds the queue full, or waits longer
+ * than the class's queue timeout, gets 503 with Retry-After instead of piling onto the pool.
+ * The INTERACTIVE and HEAVY budgets default to four times and a third (at least one) of the
+ * connection pool, so heavy requests never hold every connection and a critical request only
+ * ever waits for a connection behind a few requests of the other classes. Shed requests are
+ * answered directly, without an error dispatch, to keep shedding cheap under overload. The
+ * booking change stream is not limited here; it has its own subscriber limit and holds no
+ * connection while open.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    public enum RequestClass { CRITICAL, INTERACTIVE, HEAVY }
+
+    private static final List<String> EXEMPT = List.of("/api/bookings/stream");
+    private static final List<String> CRITICAL = List.of("/api/bookings/*/clock-in", "/api/bookings/*/clock-out");
+    private static final List<String> HEAVY = List.of("/api/analytics/**", "/api/bookings/export/**",
+            "/api/bookings/batch/**", "/api/bookings/*/matches");
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    /**
+     * One class's concurrency budget: permits in use at once, requests allowed to wait, and how long they wait
+     */
+    private static final class Budget {
+        final int limit;
+        final Semaphore permits;
+        final int queueSize;
+        final long queueTimeoutMs;
+        final long retryAfterSeconds;
+        final AtomicLong shed = new AtomicLong();
+
+        Budget(int limit, int queueSize, long queueTimeoutMs, long retryAfterSeconds) {
+            this.limit = limit;
+            this.permits = new Semaphore(limit, true);
+            this.queueSize = queueSize;
+            this.queueTimeoutMs = queueTimeoutMs;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<RequestClass, Budget> budgets = new EnumMap<>(RequestClass.class);
+
+    public AdmissionControlFilter(Environment env,
+                                  @Value("${admission.enabled:true}") boolean enabled,
+                                  @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.enabled = enabled;
+        budgets.put(RequestClass.CRITICAL, budget(env, "critical", 32, 100, 5000, 1));
+        budgets.put(RequestClass.INTERACTIVE, budget(env, "interactive", 4 * poolSize, 64, 1000, 2));
+        budgets.put(RequestClass.HEAVY, budget(env, "heavy", Math.max(1, poolSize / 3), 4, 2000, 10));
+    }
+
+    private static Budget budget(Environment env, String name, int permits, int queueSize, long queueTimeoutMs, long retryAfterSeconds) {
+        String prefix = "admission." + name + ".";
+        return new Budget(
+                env.getProperty(prefix + "permits", Integer.class, permits),
+                env.getProperty(prefix + "queue-size", Integer.class, queueSize),
+                env.getProperty(prefix + "queue-timeout-ms", Long.class, queueTimeoutMs),
+                env.getProperty(prefix + "retry-after-seconds", Long.class, retryAfterSeconds));
+    }
+
+    /**
+     * Requests shed so far, per class
+     */
+    public Map<RequestClass, Long> getShedCounts() {
+        Map<RequestClass, Long> counts = new EnumMap<>(RequestClass.class);
+        budgets.forEach((requestClass, budget) -> counts.put(requestClass, budget.shed.get()));
+        return counts;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        budgets.forEach((requestClass, budget) -> {
+            String tag = requestClass.name().toLowerCase();
+            FunctionCounter.builder("admission.shed", budget.shed, AtomicLong::get).tag("class", tag)
+                    .description("Requests answered with 503 instead of being admitted").register(registry);
+            Gauge.builder("admission.active", budget, b -> b.limit - b.permits.availablePermits()).tag("class", tag)
+                    .description("Admitted requests in progress").register(registry);
+            Gauge.builder("admission.queued", budget, b -> b.permits.getQueueLength()).tag("class", tag)
+                    .description("Requests waiting to be admitted").register(registry);
+        });
+    }
+
+    private static RequestClass classify(String path) {
+        if (matches(CRITICAL, path)) return RequestClass.CRITICAL;
+        if (matches(HEAVY, path)) return RequestClass.HEAVY;
+        return RequestClass.INTERACTIVE;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = URL_PATH_HELPER.getPathWithinApplication(request);
+        return !enabled || "OPTIONS".equals(request.getMethod()) || !path.startsWith("/api/") || matches(EXEMPT, path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestClass requestClass = classify(URL_PATH_HELPER.getPathWithinApplication(request));
+        Budget budget = budgets.get(requestClass);
+        if (!admit(budget)) {
+            budget.shed.incrementAndGet();
+            log.debug("Shedding {} request {} {}", requestClass, request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(budget.retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("{\"timestamp\":\"" + Instant.now() + "\",\"status\":503,"
+                    + "\"error\":\"Service Unavailable\",\"message\":\"Too many " + requestClass.name().toLowerCase()
+                    + " requests, try again later\",\"path\":\"" + request.getRequestURI().replace("\"", "%22") + "\"}");
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                budget.permits.release();
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streaming responses (export) keep their permit until the response is finished
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private static boolean admit(Budget budget) {
+        if (budget.permits.availablePermits() == 0 && budget.permits.getQueueLength() >= budget.queueSize) {
+            return false;
+        }
+        try {
+            // the timed tryAcquire honours the fair ordering even when a permit is free right now
+            return budget.permits.tryAcquire(budget.queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (PATHS.match(pattern, path)) return true;
+        }
+        return false;
+    }
+
+    private record ReleasingAsyncListener(Runnable release) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Catalog caches (services and categories). The Caffeine spec, size bound and TTL
+ * are set by spring.cache.* in application.properties.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ALL_SERVICES = "allServices";
+    public static final String ACTIVE_SERVICES = "activeServices";
+    public static final String SERVICES_BY_CATEGORY = "servicesByCategory";
+    public static final String CATEGORIES = "categories";
+}
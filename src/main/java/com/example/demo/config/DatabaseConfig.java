@@ -0,0 +1,20 @@
+package com.example.demo.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Database startup. The spring.sql.init scripts (schema-postgresql.sql) run after Hibernate's
+ * schema update; with spring.main.lazy-initialization nothing depends on the script initializer,
+ * so it is excluded from lazy initialization to make sure the scripts run at startup.
+ */
+@Configuration
+public class DatabaseConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter sqlInitScriptsRunEagerly() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSourceScriptDatabaseInitializer.class);
+    }
+}
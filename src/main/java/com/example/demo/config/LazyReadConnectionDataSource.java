@@ -0,0 +1,78 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * LazyConnectionDataSourceProxy that is only lazy until it knows the transaction writes: a
+ * read-write transaction takes its primary connection when it begins (setAutoCommit(false) on a
+ * connection not marked read-only), as it would without the proxy.
+ *
+ * Fully lazy, a write transaction's first statement could be Hibernate fetching the next block
+ * of a sequence, which it does while holding the generator's lock. Waiting for the pool there
+ * deadlocks with threads that already hold every connection and wait for the same lock.
+ */
+public class LazyReadConnectionDataSource extends LazyConnectionDataSourceProxy {
+
+    public LazyReadConnectionDataSource(DataSource primary, DataSource readOnly) {
+        super(primary);
+        setReadOnlyDataSource(readOnly);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return eagerForWrites(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return eagerForWrites(super.getConnection(username, password));
+    }
+
+    private static Connection eagerForWrites(Connection lazy) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[] { ConnectionProxy.class }, new EagerForWritesHandler((ConnectionProxy) lazy));
+    }
+
+    /**
+     * Passes every call through to the lazy connection, fetching its target when a read-write transaction begins
+     */
+    private static class EagerForWritesHandler implements InvocationHandler {
+
+        private final ConnectionProxy lazy;
+
+        EagerForWritesHandler(ConnectionProxy lazy) {
+            this.lazy = lazy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "setAutoCommit":
+                    if (!(Boolean) args[0] && !lazy.isReadOnly()) {
+                        lazy.getTargetConnection();
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(lazy, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes for clients while a replica serves reads. A request that may write (POST, PUT,
+ * PATCH, DELETE) reads from the primary and sets a short-lived cookie; until it expires, the
+ * client's reads go to the primary too, so it never sees the replica from before its own change.
+ *
+ * The cookie is only sent back by browsers on same-site requests, so the write's response also
+ * carries the deadline in a Read-Primary-Until header: cross-origin scripts and server-to-server
+ * clients echo it on their following reads instead.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "read-primary-until";
+
+    static final String HEADER_NAME = "Read-Primary-Until";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        if (WRITE_METHODS.contains(request.getMethod())) {
+            ReadYourWrites.requirePrimary();
+            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, Long.toString(now + window.toMillis()))
+                    .path(request.getContextPath().isEmpty() ? "/" : request.getContextPath())
+                    .maxAge(window.toSeconds() + 1)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+            response.setHeader(HEADER_NAME, Long.toString(now + window.toMillis()));
+            // readable by cross-origin scripts, which @CrossOrigin alone would not allow
+            response.addHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HEADER_NAME);
+        } else if (readPrimaryUntil(request) > now) {
+            ReadYourWrites.requirePrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+
+    private static long readPrimaryUntil(HttpServletRequest request) {
+        String header = request.getHeader(HEADER_NAME);
+        if (header != null) {
+            return parse(header);
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE_NAME.equals(cookie.getName())) {
+                    return parse(cookie.getValue());
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static long parse(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
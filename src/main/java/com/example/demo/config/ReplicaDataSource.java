@@ -0,0 +1,57 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Connections for read-only transactions: from the replica, except when the current thread needs
+ * to read its own writes (ReadYourWrites) or the replica recently failed to hand out a
+ * connection, in which case they come from the primary.
+ */
+public class ReplicaDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private final DataSource primary;
+    private final long fallbackMs;
+
+    private volatile long replicaDownUntil;
+
+    public ReplicaDataSource(DataSource replica, DataSource primary, long fallbackMs) {
+        super(replica);
+        this.primary = primary;
+        this.fallbackMs = fallbackMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadYourWrites.isPrimaryRequired() || System.currentTimeMillis() < replicaDownUntil) {
+            return primary.getConnection();
+        }
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            // not the replica's fault if every connection is busy; only stop using it when it is unreachable
+            if (!"08".equals(sqlStateClass(e))) {
+                throw e;
+            }
+            replicaDownUntil = System.currentTimeMillis() + fallbackMs;
+            log.warn("Read replica unavailable, reading from the primary for the next {} ms: {}", fallbackMs, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    private static String sqlStateClass(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().length() >= 2) {
+                return sql.getSQLState().substring(0, 2);
+            }
+        }
+        return null;
+    }
+}
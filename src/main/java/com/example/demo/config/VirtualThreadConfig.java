@@ -0,0 +1,61 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Virtual-thread mode, on when spring.threads.virtual.enabled=true and running on Java 21+.
+ * Spring Boot then runs Tomcat requests, @Scheduled tasks and task executors on virtual threads,
+ * so a request blocked on the database no longer ties up one of a fixed number of workers.
+ *
+ * The pool still has only a few connections, so the DataSource is wrapped to hand them out
+ * through a fair queue of db.connection-limit.permits (by default the Hikari pool size).
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor connectionLimiter(
+            @Value("${db.connection-limit.permits:0}") int permits,
+            @Value("${db.connection-limit.timeout-ms:10000}") long timeoutMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    int limit = permits > 0 ? permits : hikari.getMaximumPoolSize();
+                    return new ConnectionLimitingDataSource(hikari, limit, timeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder connectionLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            Gauge.builder("db.connection.limit.waiting", dataSource, ds -> limiter(ds).getWaiting())
+                    .description("Threads queued for a database connection").register(registry);
+            Gauge.builder("db.connection.limit.permits", dataSource, ds -> limiter(ds).getLimit())
+                    .description("Connections handed out at once").register(registry);
+        };
+    }
+
+    private static ConnectionLimitingDataSource limiter(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(ConnectionLimitingDataSource.class);
+        } catch (SQLException e) {
+            throw new IllegalStateException("DataSource is not connection-limited", e);
+        }
+    }
+}
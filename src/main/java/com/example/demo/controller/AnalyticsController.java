@@ -1,13 +1,20 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.SalesTrendPoint;
 import com.example.demo.service.AnalyticsService;
+import com.example.demo.service.SalesTrendService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -18,15 +25,35 @@ public class AnalyticsController {
     @Autowired
     private AnalyticsService analyticsService;
 
+    @Autowired
+    private SalesTrendService salesTrendService;
+
     @GetMapping("/summary")
     public ResponseEntity<Map<String, Object>> getSummary() {
-        System.out.println("DEBUG - Analytics API: Fetching Summary stats");
         return ResponseEntity.ok(analyticsService.getDashboardStats());
     }
 
     @GetMapping("/sales-trends")
     public ResponseEntity<Map<String, Double>> getSalesTrends() {
-        System.out.println("DEBUG - Analytics API: Fetching Sales Trends");
         return ResponseEntity.ok(analyticsService.getSalesTrends());
     }
+
+    /**
+     * GET /api/analytics/trends?granularity=day|week|month|year&from=yyyy-MM-dd&to=yyyy-MM-dd
+     * Defaults to the last 12 buckets up to today.
+     */
+    @GetMapping("/trends")
+    public ResponseEntity<List<SalesTrendPoint>> getTrends(
+            @RequestParam(defaultValue = "month") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            SalesTrendService.Granularity unit = SalesTrendService.Granularity.valueOf(granularity.toUpperCase());
+            LocalDate end = to != null ? to : LocalDate.now(ZoneId.of("Asia/Singapore"));
+            LocalDate start = from != null ? from : unit.minus(unit.truncate(end), 11);
+            return ResponseEntity.ok(salesTrendService.getTrend(unit, start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -1,30 +1,67 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.BatchResult;
+import com.example.demo.dto.BookingListItem;
+import com.example.demo.dto.BookingMatches;
+import com.example.demo.dto.BookingPage;
+import com.example.demo.dto.BookingStatusChange;
+import com.example.demo.dto.CaregiverAssignment;
+import com.example.demo.dto.GeoPoint;
 import com.example.demo.model.Booking;
+import com.example.demo.service.BookingConflictException;
 import com.example.demo.service.BookingService;
+import com.example.demo.service.CaregiverMatchingService;
+import com.example.demo.service.GeofenceException;
+import com.example.demo.service.ResourceVersions;
+import com.example.demo.service.ResourceVersions.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/bookings")
 @CrossOrigin(origins = "*") // Allow requests from J2EE application
 public class BookingController {
     
+    private static final Logger log = LoggerFactory.getLogger(BookingController.class);
+    
     @Autowired
     private BookingService bookingService;
     
+    @Autowired
+    private CaregiverMatchingService matchingService;
+    
+    @Autowired
+    private ResourceVersions versions;
+    
     /**
      * GET /api/bookings - Get all bookings
+     * With ?limit= and/or ?cursor= returns a keyset page instead of the full list.
+     * Booking lists carry an ETag; a request with a current If-None-Match gets 304 without a query.
+     * They are read through versions.read, so the rows are never older than the tag sent with them.
      */
     @GetMapping
-    public ResponseEntity<List<Booking>> getAllBookings() {
-        List<Booking> bookings = bookingService.getAllBookings();
+    public ResponseEntity<?> getAllBookings(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        if (limit != null || cursor != null) {
+            return page(() -> bookingService.getAllBookingsPage(limit, cursor));
+        }
+        List<BookingListItem> bookings = versions.read(bookingService::getAllBookings, Resource.BOOKINGS);
         return ResponseEntity.ok(bookings);
     }
     
@@ -39,20 +76,41 @@ public class BookingController {
     }
     
     /**
-     * GET /api/bookings/user/{userId} - Get bookings by user ID
+     * GET /api/bookings/user/{userId} - Get bookings by user ID (paged with ?limit=&cursor=)
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Booking>> getBookingsByUserId(@PathVariable Integer userId) {
-        List<Booking> bookings = bookingService.getBookingsByUserId(userId);
+    public ResponseEntity<?> getBookingsByUserId(
+            @PathVariable Integer userId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        if (limit != null || cursor != null) {
+            return page(() -> bookingService.getBookingsPageByUserId(userId, limit, cursor));
+        }
+        List<BookingListItem> bookings = versions.read(() -> bookingService.getBookingsByUserId(userId), Resource.BOOKINGS);
         return ResponseEntity.ok(bookings);
     }
     
     /**
-     * GET /api/bookings/caregiver/{caregiverId} - Get bookings by caregiver ID
+     * GET /api/bookings/caregiver/{caregiverId} - Get bookings by caregiver ID (paged with ?limit=&cursor=)
      */
     @GetMapping("/caregiver/{caregiverId}")
-    public ResponseEntity<List<Booking>> getBookingsByCaregiver(@PathVariable Integer caregiverId) {
-        List<Booking> bookings = bookingService.getBookingsByCaregiver(caregiverId);
+    public ResponseEntity<?> getBookingsByCaregiver(
+            @PathVariable Integer caregiverId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        if (limit != null || cursor != null) {
+            return page(() -> bookingService.getBookingsPageByCaregiver(caregiverId, limit, cursor));
+        }
+        List<BookingListItem> bookings = versions.read(() -> bookingService.getBookingsByCaregiver(caregiverId),
+                Resource.BOOKINGS);
         return ResponseEntity.ok(bookings);
     }
     
@@ -60,48 +118,106 @@ public class BookingController {
      * GET /api/bookings/unassigned - Get unassigned bookings
      */
     @GetMapping("/unassigned")
-    public ResponseEntity<List<Booking>> getUnassignedBookings() {
-        List<Booking> bookings = bookingService.getUnassignedBookings();
+    public ResponseEntity<List<BookingListItem>> getUnassignedBookings(WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        List<BookingListItem> bookings = versions.read(bookingService::getUnassignedBookings, Resource.BOOKINGS);
         return ResponseEntity.ok(bookings);
     }
     
     /**
-     * GET /api/bookings/status/{status} - Get bookings by status
+     * GET /api/bookings/unassigned/matches?k= - Top k caregivers for each upcoming unassigned booking
+     */
+    @GetMapping("/unassigned/matches")
+    public ResponseEntity<List<BookingMatches>> getUnassignedMatches(@RequestParam(required = false) Integer k) {
+        return ResponseEntity.ok(matchingService.matchUnassigned(k));
+    }
+    
+    /**
+     * GET /api/bookings/{id}/matches?k= - Top k caregivers for one booking
+     */
+    @GetMapping("/{id}/matches")
+    public ResponseEntity<BookingMatches> getBookingMatches(@PathVariable Integer id, @RequestParam(required = false) Integer k) {
+        return matchingService.matchBooking(id, k)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * GET /api/bookings/status/{status} - Get bookings by status (paged with ?limit=&cursor=)
      */
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Booking>> getBookingsByStatus(@PathVariable String status) {
-        List<Booking> bookings = bookingService.getBookingsByStatus(status);
+    public ResponseEntity<?> getBookingsByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        if (limit != null || cursor != null) {
+            return page(() -> bookingService.getBookingsPageByStatus(status, limit, cursor));
+        }
+        List<BookingListItem> bookings = versions.read(() -> bookingService.getBookingsByStatus(status), Resource.BOOKINGS);
         return ResponseEntity.ok(bookings);
     }
     
     /**
-     * GET /api/bookings/payment-status/{paymentStatus} - Get bookings by payment status
+     * GET /api/bookings/payment-status/{paymentStatus} - Get bookings by payment status (paged with ?limit=&cursor=)
      */
     @GetMapping("/payment-status/{paymentStatus}")
-    public ResponseEntity<List<Booking>> getBookingsByPaymentStatus(@PathVariable String paymentStatus) {
-        List<Booking> bookings = bookingService.getBookingsByPaymentStatus(paymentStatus);
+    public ResponseEntity<?> getBookingsByPaymentStatus(
+            @PathVariable String paymentStatus,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+        if (limit != null || cursor != null) {
+            return page(() -> bookingService.getBookingsPageByPaymentStatus(paymentStatus, limit, cursor));
+        }
+        List<BookingListItem> bookings = versions.read(() -> bookingService.getBookingsByPaymentStatus(paymentStatus),
+                Resource.BOOKINGS);
         return ResponseEntity.ok(bookings);
     }
     
     /**
-     * POST /api/bookings - Create a new booking
+     * POST /api/bookings - Create a new booking; 409 if its caregiver has an overlapping booking
      */
     @PostMapping
     public ResponseEntity<Booking> createBooking(@RequestBody Booking booking) {
         try {
             Booking createdBooking = bookingService.createBooking(booking);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdBooking);
+        } catch (BookingConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
     
     /**
-     * PUT /api/bookings/{id} - Update an existing booking
+     * POST /api/bookings/batch - Create many bookings in one transaction, with a result per entry
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult> createBookings(@RequestBody List<Booking> bookings) {
+        return batch(() -> bookingService.createBookings(bookings));
+    }
+    
+    /**
+     * PUT /api/bookings/{id} - Update an existing booking; 409 if it changes the caregiver of an assigned
+     * booking or the caregiver has an overlapping booking
      */
     @PutMapping("/{id}")
     public ResponseEntity<Booking> updateBooking(@PathVariable Integer id, @RequestBody Booking bookingDetails) {
-        Booking updatedBooking = bookingService.updateBooking(id, bookingDetails);
+        Booking updatedBooking;
+        try {
+            updatedBooking = bookingService.updateBooking(id, bookingDetails);
+        } catch (BookingConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         
         if (updatedBooking != null) {
             return ResponseEntity.ok(updatedBooking);
@@ -111,13 +227,19 @@ public class BookingController {
     }
     
     /**
-     * PATCH or POST /api/bookings/{id}/status - Update booking status
+     * PATCH or POST /api/bookings/{id}/status - Update booking status; 409 if it brings back a cancelled
+     * booking whose caregiver has since been booked at that time
      */
     @RequestMapping(value = "/{id}/status", method = {RequestMethod.PATCH, RequestMethod.POST})
     public ResponseEntity<Booking> updateBookingStatus(
             @PathVariable Integer id, 
             @RequestParam String status) {
-        Booking updatedBooking = bookingService.updateBookingStatus(id, status);
+        Booking updatedBooking;
+        try {
+            updatedBooking = bookingService.updateBookingStatus(id, status);
+        } catch (BookingConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         
         if (updatedBooking != null) {
             return ResponseEntity.ok(updatedBooking);
@@ -149,7 +271,12 @@ public class BookingController {
     public ResponseEntity<Booking> assignCaregiver(
             @PathVariable Integer id, 
             @RequestParam Integer caregiverId) {
-        Booking updatedBooking = bookingService.assignCaregiver(id, caregiverId);
+        Booking updatedBooking;
+        try {
+            updatedBooking = bookingService.assignCaregiver(id, caregiverId);
+        } catch (BookingConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         
         if (updatedBooking != null) {
             return ResponseEntity.ok(updatedBooking);
@@ -158,6 +285,22 @@ public class BookingController {
         }
     }
     
+    /**
+     * PATCH or POST /api/bookings/batch/status - Update the status of many bookings in one transaction
+     */
+    @RequestMapping(value = "/batch/status", method = {RequestMethod.PATCH, RequestMethod.POST})
+    public ResponseEntity<BatchResult> updateBookingStatuses(@RequestBody List<BookingStatusChange> changes) {
+        return batch(() -> bookingService.updateBookingStatuses(changes));
+    }
+    
+    /**
+     * PATCH or POST /api/bookings/batch/assign-caregiver - Assign caregivers to many bookings in one transaction
+     */
+    @RequestMapping(value = "/batch/assign-caregiver", method = {RequestMethod.PATCH, RequestMethod.POST})
+    public ResponseEntity<BatchResult> assignCaregivers(@RequestBody List<CaregiverAssignment> assignments) {
+        return batch(() -> bookingService.assignCaregivers(assignments));
+    }
+    
     /**
      * PATCH /api/bookings/{id}/caregiver-status - Update caregiver status
      */
@@ -175,37 +318,63 @@ public class BookingController {
     }
     
     /**
-     * POST /api/bookings/{id}/clock-in - Caregiver clock in
+     * POST /api/bookings/{id}/clock-in?lat=&lon=&location= - Caregiver clock in. The device's lat/lon
+     * (or else the geocoded location) is checked against the booking's geofence; 422 if it is outside
+     * and geofence.enforce is on, 400 for coordinates out of range
      */
     @RequestMapping(value = "/{id}/clock-in", method = {RequestMethod.PATCH, RequestMethod.POST})
     public ResponseEntity<Booking> clockIn(
             @PathVariable Integer id,
-            @RequestParam(required = false) String location) {
-        System.out.println("DEBUG - Spring Boot: Clock-in request for ID " + id + " at " + location);
-        Booking updatedBooking = bookingService.clockIn(id, location != null ? location : "Unknown");
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon) {
+        Booking updatedBooking;
+        try {
+            GeoPoint position = lat != null && lon != null ? new GeoPoint(lat, lon) : null;
+            updatedBooking = bookingService.clockIn(id, location != null ? location
+                    : position != null ? lat + "," + lon : "Unknown", position);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (GeofenceException e) {
+            log.info("Rejected by geofence: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_CONTENT).build();
+        }
         if (updatedBooking != null) {
-            System.out.println("DEBUG - Spring Boot: Clock-in success for ID " + id);
+            log.debug("Clock-in for booking {} at {}", id, location);
             return ResponseEntity.ok(updatedBooking);
         } else {
-            System.out.println("DEBUG - Spring Boot: Clock-in FAILED (Not Found) for ID " + id);
+            log.debug("Clock-in for unknown booking {}", id);
             return ResponseEntity.notFound().build();
         }
     }
 
     /**
-     * POST /api/bookings/{id}/clock-out - Caregiver clock out
+     * POST /api/bookings/{id}/clock-out?lat=&lon=&location= - Caregiver clock out. The device's lat/lon
+     * (or else the geocoded location) is checked against the booking's geofence; 422 if it is outside
+     * and geofence.enforce is on, 400 for coordinates out of range
      */
     @RequestMapping(value = "/{id}/clock-out", method = {RequestMethod.PATCH, RequestMethod.POST})
     public ResponseEntity<Booking> clockOut(
             @PathVariable Integer id,
-            @RequestParam(required = false) String location) {
-        System.out.println("DEBUG - Spring Boot: Clock-out request for ID " + id + " at " + location);
-        Booking updatedBooking = bookingService.clockOut(id, location != null ? location : "Unknown");
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon) {
+        Booking updatedBooking;
+        try {
+            GeoPoint position = lat != null && lon != null ? new GeoPoint(lat, lon) : null;
+            updatedBooking = bookingService.clockOut(id, location != null ? location
+                    : position != null ? lat + "," + lon : "Unknown", position);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (GeofenceException e) {
+            log.info("Rejected by geofence: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_CONTENT).build();
+        }
         if (updatedBooking != null) {
-            System.out.println("DEBUG - Spring Boot: Clock-out success for ID " + id);
+            log.debug("Clock-out for booking {} at {}", id, location);
             return ResponseEntity.ok(updatedBooking);
         } else {
-            System.out.println("DEBUG - Spring Boot: Clock-out FAILED (Not Found) for ID " + id);
+            log.debug("Clock-out for unknown booking {}", id);
             return ResponseEntity.notFound().build();
         }
     }
@@ -223,4 +392,41 @@ public class BookingController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    /**
+     * A concurrent update changed the booking first (stale @Version) - 409 Conflict
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleOptimisticLockFailure() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Run a batch operation, mapping an empty or oversized batch to 400
+     */
+    private ResponseEntity<BatchResult> batch(Supplier<BatchResult> operation) {
+        try {
+            return ResponseEntity.ok(operation.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+    
+    /**
+     * Set the booking list ETag; true when the client's copy is current and 304 has been sent
+     */
+    private boolean notModified(WebRequest request) {
+        return request.checkNotModified(versions.etag(Resource.BOOKINGS));
+    }
+    
+    /**
+     * Run a page query through versions.read, mapping a malformed cursor to 400
+     */
+    private ResponseEntity<?> page(Supplier<BookingPage<BookingListItem>> query) {
+        try {
+            return ResponseEntity.ok(versions.read(query, Resource.BOOKINGS));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
 }
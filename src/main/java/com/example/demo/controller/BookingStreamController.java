@@ -0,0 +1,42 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.BookingEventStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/bookings/stream")
+@CrossOrigin(origins = "*")
+public class BookingStreamController {
+
+    @Autowired
+    private BookingEventStream eventStream;
+
+    /**
+     * GET /api/bookings/stream?caregiverId=&userId=&unassigned= - Server-Sent Events feed of booking changes
+     * (all changes without filters); 503 when too many clients are connected
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamBookingChanges(
+            @RequestParam(required = false) Integer caregiverId,
+            @RequestParam(required = false) Integer userId,
+            @RequestParam(defaultValue = "false") boolean unassigned,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = eventStream.subscribe(new BookingEventStream.Filter(caregiverId, userId, unassigned), lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no") // keep proxies from buffering the stream
+                .body(emitter);
+    }
+}
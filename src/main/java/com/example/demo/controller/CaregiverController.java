@@ -1,11 +1,20 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CaregiverDistance;
+import com.example.demo.dto.CaregiverListItem;
+import com.example.demo.dto.GeoPoint;
+import com.example.demo.dto.ScheduleCheck;
 import com.example.demo.model.Caregiver;
 import com.example.demo.service.CaregiverService;
+import com.example.demo.service.ResourceVersions;
+import com.example.demo.service.ResourceVersions.Resource;
+import com.example.demo.service.WeeklyAvailability;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -16,14 +25,71 @@ public class CaregiverController {
     @Autowired
     private CaregiverService caregiverService;
 
+    @Autowired
+    private ResourceVersions versions;
+
+    /**
+     * Lists carry an ETag; a request with a current If-None-Match gets 304 without a query. They are
+     * read from the primary only while caregivers may still be lagging on the replica, so a lagging
+     * replica never serves old rows under a new tag.
+     */
     @GetMapping
-    public List<Caregiver> getAllCaregivers() {
-        return caregiverService.getAllCaregivers();
+    public List<CaregiverListItem> getAllCaregivers(WebRequest request) {
+        if (request.checkNotModified(versions.etag(Resource.CAREGIVERS))) {
+            return null;
+        }
+        return versions.read(caregiverService::getAllCaregivers, Resource.CAREGIVERS);
     }
 
     @GetMapping("/available")
-    public List<Caregiver> getAvailableCaregivers() {
-        return caregiverService.getAvailableCaregivers();
+    public List<CaregiverListItem> getAvailableCaregivers(WebRequest request) {
+        if (request.checkNotModified(versions.etag(Resource.CAREGIVERS))) {
+            return null;
+        }
+        return versions.read(caregiverService::getAvailableCaregivers, Resource.CAREGIVERS);
+    }
+
+    /**
+     * GET /api/caregivers/search?q=&available=&companyId=&minRating=&limit= - Caregivers whose specialties,
+     * qualifications or bio contain every word of q (as a word or word prefix), best match first
+     */
+    @GetMapping("/search")
+    public List<CaregiverListItem> searchCaregivers(@RequestParam(required = false) String q,
+                                                    @RequestParam(required = false) Boolean available,
+                                                    @RequestParam(required = false) Integer companyId,
+                                                    @RequestParam(required = false) BigDecimal minRating,
+                                                    @RequestParam(required = false) Integer limit) {
+        return caregiverService.search(q, available, companyId, minRating, limit);
+    }
+
+    /**
+     * GET /api/caregivers/nearest?lat=&lon= | bookingId= | address= &k=&available= - The k caregivers
+     * (default 5, at most 50) whose last clock-in or clock-out was nearest to the point, the booking's
+     * pickup or the geocoded address; 400 if no point is given or it cannot be located
+     */
+    @GetMapping("/nearest")
+    public ResponseEntity<List<CaregiverDistance>> nearestCaregivers(@RequestParam(required = false) Double lat,
+                                                                     @RequestParam(required = false) Double lon,
+                                                                     @RequestParam(required = false) Integer bookingId,
+                                                                     @RequestParam(required = false) String address,
+                                                                     @RequestParam(required = false) Integer k,
+                                                                     @RequestParam(required = false) Boolean available) {
+        try {
+            if (lat != null && lon != null) {
+                return ResponseEntity.ok(caregiverService.nearest(new GeoPoint(lat, lon), k, available));
+            }
+            if (bookingId != null) {
+                return caregiverService.nearestToBooking(bookingId, k, available)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build());
+            }
+            if (address != null) {
+                return ResponseEntity.ok(caregiverService.nearest(caregiverService.locate(address), k, available));
+            }
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -40,6 +106,27 @@ public class CaregiverController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * GET /api/caregivers/{id}/availability - Weekly slots parsed from availableHours
+     */
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<WeeklyAvailability> getAvailability(@PathVariable Integer id) {
+        return caregiverService.getAvailability(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/caregivers/{id}/schedule-check?bookingId= - Overlapping bookings and available hours
+     * for assigning this caregiver to a booking
+     */
+    @GetMapping("/{id}/schedule-check")
+    public ResponseEntity<ScheduleCheck> checkSchedule(@PathVariable Integer id, @RequestParam Integer bookingId) {
+        return caregiverService.checkSchedule(id, bookingId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping
     public Caregiver createCaregiver(@RequestBody Caregiver caregiver) {
         return caregiverService.saveCaregiver(caregiver);
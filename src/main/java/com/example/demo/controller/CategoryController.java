@@ -2,9 +2,12 @@ package com.example.demo.controller;
 
 import com.example.demo.model.Category;
 import com.example.demo.service.CategoryService;
+import com.example.demo.service.ResourceVersions;
+import com.example.demo.service.ResourceVersions.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,8 +19,17 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private ResourceVersions versions;
+
+    /**
+     * Carries an ETag; a request with a current If-None-Match gets 304 without a query
+     */
     @GetMapping
-    public List<Category> getAllCategories() {
+    public List<Category> getAllCategories(WebRequest request) {
+        if (request.checkNotModified(versions.etag(Resource.CATEGORIES))) {
+            return null;
+        }
         return categoryService.getAllCategories();
     }
 
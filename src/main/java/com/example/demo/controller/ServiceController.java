@@ -1,10 +1,14 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ServiceListItem;
 import com.example.demo.model.Service;
+import com.example.demo.service.ResourceVersions;
+import com.example.demo.service.ResourceVersions.Resource;
 import com.example.demo.service.ServiceEntityService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,8 +20,18 @@ public class ServiceController {
     @Autowired
     private ServiceEntityService serviceService;
 
+    @Autowired
+    private ResourceVersions versions;
+
+    /**
+     * Lists carry an ETag; a request with a current If-None-Match gets 304 without a query
+     */
     @GetMapping
-    public List<Service> getAllServices(@RequestParam(required = false) Integer categoryId) {
+    public List<ServiceListItem> getAllServices(@RequestParam(required = false) Integer categoryId, WebRequest request) {
+        // list items embed the category name
+        if (request.checkNotModified(versions.etag(Resource.SERVICES, Resource.CATEGORIES))) {
+            return null;
+        }
         if (categoryId != null) {
             return serviceService.getServicesByCategory(categoryId);
         }
@@ -25,7 +39,10 @@ public class ServiceController {
     }
 
     @GetMapping("/active")
-    public List<Service> getActiveServices() {
+    public List<ServiceListItem> getActiveServices(WebRequest request) {
+        if (request.checkNotModified(versions.etag(Resource.SERVICES, Resource.CATEGORIES))) {
+            return null;
+        }
         return serviceService.getActiveServices();
     }
 
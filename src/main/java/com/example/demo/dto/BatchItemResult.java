@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Booking;
+
+/**
+ * Outcome of one entry of a batch request. index is the entry's position in the request and
+ * status the HTTP status the single-booking endpoint would have returned for it.
+ */
+public record BatchItemResult(int index, Integer bookingId, int status, String error, Booking booking) {
+
+    public static BatchItemResult ok(int index, int status, Booking booking) {
+        return new BatchItemResult(index, booking.getBookingId(), status, null, booking);
+    }
+
+    public static BatchItemResult failed(int index, Integer bookingId, int status, String error) {
+        return new BatchItemResult(index, bookingId, status, error, null);
+    }
+
+    public boolean succeeded() {
+        return booking != null;
+    }
+}
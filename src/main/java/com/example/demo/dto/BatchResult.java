@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Per-entry results of a batch request, in request order.
+ */
+public record BatchResult(int succeeded, int failed, List<BatchItemResult> results) {
+
+    public static BatchResult of(List<BatchItemResult> results) {
+        int succeeded = (int) results.stream().filter(BatchItemResult::succeeded).count();
+        return new BatchResult(succeeded, results.size() - succeeded, results);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+
+/**
+ * Position in the (bookingDate, bookingTime, bookingId) descending order used by booking lists.
+ * Clients only see it as an opaque URL-safe token.
+ */
+public record BookingCursor(LocalDate bookingDate, LocalTime bookingTime, Integer bookingId) {
+
+    /**
+     * Sorts after every real booking, so a query "before" it returns the first page
+     */
+    public static final BookingCursor START = new BookingCursor(LocalDate.of(9999, 12, 31), LocalTime.MAX, Integer.MAX_VALUE);
+
+    public String encode() {
+        String raw = bookingDate + "|" + bookingTime + "|" + bookingId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static BookingCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            return new BookingCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Integer.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
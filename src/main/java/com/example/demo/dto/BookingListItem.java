@@ -0,0 +1,48 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Read-only booking row for list endpoints, built by a JPQL constructor expression
+ * that joins the user name in the same query. Serializes like the Booking entity without
+ * version, the pickup, destination and clock-in/out coordinates, and the clock-in/out
+ * geofence distances and verdicts.
+ */
+public record BookingListItem(
+        Integer bookingId,
+        Integer userId,
+        UserRef user,
+        Integer serviceId,
+        Integer caregiverId,
+        LocalDate bookingDate,
+        LocalTime bookingTime,
+        String status,
+        String caregiverStatus,
+        String paymentStatus,
+        String notes,
+        String pickupAddress,
+        String destinationAddress,
+        Double totalPrice,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime clockInTime,
+        LocalDateTime clockOutTime,
+        String clockInLocation,
+        String clockOutLocation) {
+
+    /**
+     * Flat form used by the repository queries; the user columns come from a left join
+     */
+    public BookingListItem(Integer bookingId, Integer userId, String userName, Integer serviceId, Integer caregiverId,
+                           LocalDate bookingDate, LocalTime bookingTime, String status, String caregiverStatus,
+                           String paymentStatus, String notes, String pickupAddress, String destinationAddress,
+                           Double totalPrice, LocalDateTime createdAt, LocalDateTime updatedAt,
+                           LocalDateTime clockInTime, LocalDateTime clockOutTime,
+                           String clockInLocation, String clockOutLocation) {
+        this(bookingId, userId, UserRef.of(userId, userName), serviceId, caregiverId, bookingDate, bookingTime,
+             status, caregiverStatus, paymentStatus, notes, pickupAddress, destinationAddress, totalPrice,
+             createdAt, updatedAt, clockInTime, clockOutTime, clockInLocation, clockOutLocation);
+    }
+}
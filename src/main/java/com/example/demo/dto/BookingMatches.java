@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * The best caregivers for one unassigned booking, best first.
+ */
+public record BookingMatches(
+        Integer bookingId,
+        Integer serviceId,
+        LocalDate bookingDate,
+        LocalTime bookingTime,
+        List<CaregiverMatch> candidates) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * One page of a booking list. nextCursor is null on the last page.
+ */
+public record BookingPage<T>(List<T> items, int limit, String nextCursor) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+/**
+ * One entry of a batch status update.
+ */
+public record BookingStatusChange(Integer bookingId, String status) {
+}
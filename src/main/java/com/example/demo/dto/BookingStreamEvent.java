@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingSnapshot;
+
+/**
+ * One message of the booking change stream: the booking as it is now (null once deleted)
+ * and its state before the change (null for creations), so a client can add, update or
+ * drop it from the list it is showing.
+ */
+public record BookingStreamEvent(
+        BookingChangedEvent.Type type,
+        Integer bookingId,
+        BookingListItem booking,
+        BookingSnapshot before) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+/**
+ * One entry of a batch caregiver assignment.
+ */
+public record CaregiverAssignment(Integer bookingId, Integer caregiverId) {
+}
@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A caregiver near a point: the great-circle distance to their last known position, which is
+ * where they last clocked in or out (seenAt, SGT).
+ */
+public record CaregiverDistance(
+        Integer caregiverId,
+        String name,
+        Boolean isAvailable,
+        BigDecimal rating,
+        double distanceKm,
+        GeoPoint position,
+        LocalDateTime seenAt) {
+}
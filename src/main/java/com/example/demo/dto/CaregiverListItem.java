@@ -0,0 +1,35 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only caregiver row for list endpoints, with the user name joined in the same query.
+ * Has every field of the Caregiver entity; user carries the AppUser's userId and name.
+ */
+public record CaregiverListItem(
+        Integer caregiverId,
+        Integer userId,
+        UserRef user,
+        String name,
+        String phone,
+        String email,
+        Boolean isAvailable,
+        String qualifications,
+        String specialties,
+        Integer experienceYears,
+        String bio,
+        String availableHours,
+        BigDecimal rating,
+        String profileImage,
+        Integer companyId,
+        LocalDateTime createdAt) {
+
+    public CaregiverListItem(Integer caregiverId, Integer userId, String userName, String name, String phone,
+                             String email, Boolean isAvailable, String qualifications, String specialties,
+                             Integer experienceYears, String bio, String availableHours, BigDecimal rating,
+                             String profileImage, Integer companyId, LocalDateTime createdAt) {
+        this(caregiverId, userId, UserRef.of(userId, userName), name, phone, email, isAvailable, qualifications,
+             specialties, experienceYears, bio, availableHours, rating, profileImage, companyId, createdAt);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One ranked caregiver for a booking. score is in [0, 1]; specialtyMatch is the share of the
+ * booking's service and category keywords found in the caregiver's specialties and qualifications.
+ */
+public record CaregiverMatch(
+        Integer caregiverId,
+        String name,
+        double score,
+        double specialtyMatch,
+        BigDecimal rating,
+        Integer experienceYears,
+        int upcomingBookings,
+        boolean withinAvailability) {
+}
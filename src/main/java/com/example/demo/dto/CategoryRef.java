@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+/**
+ * The category fields embedded in service list items.
+ */
+public record CategoryRef(Integer categoryId, String categoryName) {
+
+    public static CategoryRef of(Integer categoryId, String categoryName) {
+        return categoryId != null ? new CategoryRef(categoryId, categoryName) : null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.dto;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A WGS84 position in decimal degrees.
+ */
+public record GeoPoint(double lat, double lon) {
+
+    private static final double EARTH_RADIUS_METRES = 6_371_008.8;
+
+    private static final Pattern COORDINATES =
+            Pattern.compile("\\s*(-?\\d{1,2}(?:\\.\\d+)?)\\s*,\\s*(-?\\d{1,3}(?:\\.\\d+)?)\\s*");
+
+    public GeoPoint {
+        if (!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180)) {
+            throw new IllegalArgumentException("Not a position: " + lat + "," + lon);
+        }
+    }
+
+    /**
+     * The point for a "lat,lon" text such as "1.3521,103.8198", or null if the text is not one
+     */
+    public static GeoPoint parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = COORDINATES.matcher(text);
+        if (!matcher.matches()) {
+            return null;
+        }
+        double lat = Double.parseDouble(matcher.group(1));
+        double lon = Double.parseDouble(matcher.group(2));
+        return lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180 ? new GeoPoint(lat, lon) : null;
+    }
+
+    /**
+     * Null unless both coordinates are present, for the nullable lat/lon column pairs
+     */
+    public static GeoPoint of(Double lat, Double lon) {
+        return lat != null && lon != null ? new GeoPoint(lat, lon) : null;
+    }
+
+    /**
+     * Equirectangular approximation of distanceMetres: within 0.1% of it up to tens of kilometres
+     * apart, and cheap enough for every clock event. Mirrors the SQL in BookingTransitionRepositoryImpl.
+     */
+    public double approxDistanceMetres(GeoPoint other) {
+        double x = Math.toRadians(other.lon - lon) * Math.cos(Math.toRadians((lat + other.lat) / 2));
+        double y = Math.toRadians(other.lat - lat);
+        return EARTH_RADIUS_METRES * Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Great-circle (haversine) distance in metres
+     */
+    public double distanceMetres(GeoPoint other) {
+        double dLat = Math.toRadians(other.lat - lat);
+        double dLon = Math.toRadians(other.lon - lon);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat)) * Math.cos(Math.toRadians(other.lat)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METRES * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
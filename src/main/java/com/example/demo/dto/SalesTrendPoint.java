@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One point of a sales time series: the bucket start, completed sales and completed booking count.
+ */
+public record SalesTrendPoint(LocalDate bucket, double sales, long bookings) {
+}
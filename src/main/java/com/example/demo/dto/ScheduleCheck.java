@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Whether a caregiver can take a booking: the booking's [start, end) window, the caregiver's
+ * bookings that overlap it, and whether it falls inside the caregiver's available hours.
+ */
+public record ScheduleCheck(
+        Integer bookingId,
+        Integer caregiverId,
+        LocalDateTime start,
+        LocalDateTime end,
+        List<Integer> conflictingBookingIds,
+        boolean withinAvailability,
+        boolean availabilityParsed) {
+
+    public boolean hasConflicts() {
+        return !conflictingBookingIds.isEmpty();
+    }
+}
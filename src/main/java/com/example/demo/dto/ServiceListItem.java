@@ -0,0 +1,29 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only service row for list endpoints, with the category name joined in the same query.
+ * Serializes like the Service entity, except that category carries only categoryId and
+ * categoryName, without its description and createdAt.
+ */
+public record ServiceListItem(
+        Integer serviceId,
+        String serviceName,
+        String description,
+        Double basePrice,
+        Integer durationMinutes,
+        Integer categoryId,
+        CategoryRef category,
+        Boolean isActive,
+        Integer companyId,
+        String imageUrl,
+        LocalDateTime createdAt) {
+
+    public ServiceListItem(Integer serviceId, String serviceName, String description, Double basePrice,
+                           Integer durationMinutes, Integer categoryId, String categoryName, Boolean isActive,
+                           Integer companyId, String imageUrl, LocalDateTime createdAt) {
+        this(serviceId, serviceName, description, basePrice, durationMinutes, categoryId,
+             CategoryRef.of(categoryId, categoryName), isActive, companyId, imageUrl, createdAt);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+/**
+ * The user fields embedded in list items, serialized like the AppUser entity.
+ */
+public record UserRef(Integer userId, String name) {
+
+    public static UserRef of(Integer userId, String name) {
+        return userId != null ? new UserRef(userId, name) : null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.event;
+
+/**
+ * Published by BookingService for every booking mutation.
+ * {@code before} is null for creations and {@code after} is null for deletions.
+ */
+public record BookingChangedEvent(Type type, BookingSnapshot before, BookingSnapshot after) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        STATUS_CHANGED,
+        PAYMENT_STATUS_CHANGED,
+        CAREGIVER_ASSIGNED,
+        CAREGIVER_STATUS_CHANGED,
+        CLOCKED_IN,
+        CLOCKED_OUT,
+        DELETED
+    }
+
+    public Integer bookingId() {
+        return after != null ? after.bookingId() : before.bookingId();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.event;
+
+/**
+ * Receives booking changes from the outbox, after commit and off the request thread.
+ *
+ * Delivery is at least once: an event can arrive again if the application stops between a
+ * consumer handling it and the outbox recording that, so handlers should be idempotent
+ * (eventId is the same on every delivery). Events of one booking arrive in the order they were
+ * committed. Throwing makes the event be retried later, for this consumer only.
+ */
+public interface BookingEventConsumer {
+
+    /**
+     * Stable name recorded against each event this consumer has handled; changing it causes redelivery
+     */
+    String name();
+
+    void handle(long eventId, BookingChangedEvent event) throws Exception;
+}
@@ -0,0 +1,53 @@
+package com.example.demo.event;
+
+import com.example.demo.model.Booking;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Immutable copy of the booking fields that downstream listeners care about,
+ * taken before or after a change so the entity can keep being mutated.
+ */
+public record BookingSnapshot(
+        Integer bookingId,
+        Integer userId,
+        Integer serviceId,
+        Integer caregiverId,
+        LocalDate bookingDate,
+        LocalTime bookingTime,
+        String status,
+        String caregiverStatus,
+        String paymentStatus,
+        Double totalPrice) {
+
+    public static BookingSnapshot of(Booking booking) {
+        if (booking == null) {
+            return null;
+        }
+        return new BookingSnapshot(
+                booking.getBookingId(),
+                booking.getUserId(),
+                booking.getServiceId(),
+                booking.getCaregiverId(),
+                booking.getBookingDate(),
+                booking.getBookingTime(),
+                booking.getStatus(),
+                booking.getCaregiverStatus(),
+                booking.getPaymentStatus(),
+                booking.getTotalPrice());
+    }
+
+    /**
+     * Same booking with different assignment and status fields, used to rebuild the
+     * "before" state of a single-statement transition
+     */
+    public BookingSnapshot withState(Integer caregiverId, String status, String caregiverStatus, String paymentStatus) {
+        return new BookingSnapshot(bookingId, userId, serviceId, caregiverId, bookingDate, bookingTime,
+                status, caregiverStatus, paymentStatus, totalPrice);
+    }
+
+    public boolean isCompleted() {
+        return "Completed".equalsIgnoreCase(status);
+    }
+}
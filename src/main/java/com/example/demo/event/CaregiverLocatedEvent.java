@@ -0,0 +1,11 @@
+package com.example.demo.event;
+
+import com.example.demo.dto.GeoPoint;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by BookingService when a caregiver clocks in or out at a known position.
+ */
+public record CaregiverLocatedEvent(Integer caregiverId, GeoPoint position, LocalDateTime at) {
+}
@@ -6,11 +6,20 @@ import java.time.LocalTime;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "booking")
+@Table(name = "booking", indexes = {
+    // Keyset pagination: each list is served by an index seek on its filter plus the sort key
+    @Index(name = "idx_booking_keyset", columnList = "booking_date, booking_time, booking_id"),
+    @Index(name = "idx_booking_user_keyset", columnList = "user_id, booking_date, booking_time, booking_id"),
+    @Index(name = "idx_booking_caregiver_keyset", columnList = "caregiver_id, booking_date, booking_time, booking_id"),
+    @Index(name = "idx_booking_status_keyset", columnList = "status, booking_date, booking_time, booking_id"),
+    @Index(name = "idx_booking_payment_keyset", columnList = "payment_status, booking_date, booking_time, booking_id")
+})
 public class Booking {
     
+    // Pooled sequence: one nextval per 50 new bookings, and unlike IDENTITY it lets Hibernate batch the INSERTs
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     @Column(name = "booking_id")
     private Integer bookingId;
     
@@ -51,6 +60,19 @@ public class Booking {
     @Column(name = "destination_address", length = 500)
     private String destinationAddress;
     
+    // Coordinates geocoded from the address and location fields when they are written (null if unresolved)
+    @Column(name = "pickup_lat")
+    private Double pickupLat;
+    
+    @Column(name = "pickup_lon")
+    private Double pickupLon;
+    
+    @Column(name = "destination_lat")
+    private Double destinationLat;
+    
+    @Column(name = "destination_lon")
+    private Double destinationLon;
+    
     @Column(name = "total_price")
     private Double totalPrice;
     
@@ -71,6 +93,37 @@ public class Booking {
 
     @Column(name = "clock_out_location", length = 500)
     private String clockOutLocation;
+
+    @Column(name = "clock_in_lat")
+    private Double clockInLat;
+
+    @Column(name = "clock_in_lon")
+    private Double clockInLon;
+
+    @Column(name = "clock_out_lat")
+    private Double clockOutLat;
+
+    @Column(name = "clock_out_lon")
+    private Double clockOutLon;
+
+    // Geofence check of each clock event: distance from the pickup (destination for clock-out, if any)
+    // in whole metres, and Verified, Outside or Unverified (no coordinates on one side)
+    @Column(name = "clock_in_distance_m")
+    private Integer clockInDistanceMetres;
+
+    @Column(name = "clock_in_geofence", length = 20)
+    private String clockInGeofence;
+
+    @Column(name = "clock_out_distance_m")
+    private Integer clockOutDistanceMetres;
+
+    @Column(name = "clock_out_geofence", length = 20)
+    private String clockOutGeofence;
+
+    // Optimistic lock: concurrent read-modify-write updates fail instead of overwriting each other
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0 not null")
+    private long version;
     
     // Constructors
     public Booking() {
@@ -199,6 +252,38 @@ public class Booking {
         this.destinationAddress = destinationAddress;
     }
     
+    public Double getPickupLat() {
+        return pickupLat;
+    }
+    
+    public void setPickupLat(Double pickupLat) {
+        this.pickupLat = pickupLat;
+    }
+    
+    public Double getPickupLon() {
+        return pickupLon;
+    }
+    
+    public void setPickupLon(Double pickupLon) {
+        this.pickupLon = pickupLon;
+    }
+    
+    public Double getDestinationLat() {
+        return destinationLat;
+    }
+    
+    public void setDestinationLat(Double destinationLat) {
+        this.destinationLat = destinationLat;
+    }
+    
+    public Double getDestinationLon() {
+        return destinationLon;
+    }
+    
+    public void setDestinationLon(Double destinationLon) {
+        this.destinationLon = destinationLon;
+    }
+    
     public Double getTotalPrice() {
         return totalPrice;
     }
@@ -254,6 +339,74 @@ public class Booking {
     public void setClockOutLocation(String clockOutLocation) {
         this.clockOutLocation = clockOutLocation;
     }
+
+    public Double getClockInLat() {
+        return clockInLat;
+    }
+
+    public void setClockInLat(Double clockInLat) {
+        this.clockInLat = clockInLat;
+    }
+
+    public Double getClockInLon() {
+        return clockInLon;
+    }
+
+    public void setClockInLon(Double clockInLon) {
+        this.clockInLon = clockInLon;
+    }
+
+    public Double getClockOutLat() {
+        return clockOutLat;
+    }
+
+    public void setClockOutLat(Double clockOutLat) {
+        this.clockOutLat = clockOutLat;
+    }
+
+    public Double getClockOutLon() {
+        return clockOutLon;
+    }
+
+    public void setClockOutLon(Double clockOutLon) {
+        this.clockOutLon = clockOutLon;
+    }
+
+    public Integer getClockInDistanceMetres() {
+        return clockInDistanceMetres;
+    }
+
+    public void setClockInDistanceMetres(Integer clockInDistanceMetres) {
+        this.clockInDistanceMetres = clockInDistanceMetres;
+    }
+
+    public String getClockInGeofence() {
+        return clockInGeofence;
+    }
+
+    public void setClockInGeofence(String clockInGeofence) {
+        this.clockInGeofence = clockInGeofence;
+    }
+
+    public Integer getClockOutDistanceMetres() {
+        return clockOutDistanceMetres;
+    }
+
+    public void setClockOutDistanceMetres(Integer clockOutDistanceMetres) {
+        this.clockOutDistanceMetres = clockOutDistanceMetres;
+    }
+
+    public String getClockOutGeofence() {
+        return clockOutGeofence;
+    }
+
+    public void setClockOutGeofence(String clockOutGeofence) {
+        this.clockOutGeofence = clockOutGeofence;
+    }
+
+    public long getVersion() {
+        return version;
+    }
     
     @Override
     public String toString() {
@@ -0,0 +1,13 @@
+package com.example.demo.projection;
+
+/**
+ * One row of the dashboard aggregate: booking count and completed sales for a single status.
+ */
+public interface BookingStatusAggregate {
+
+    String getStatus();
+
+    Long getBookingCount();
+
+    Double getCompletedSales();
+}
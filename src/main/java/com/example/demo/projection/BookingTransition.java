@@ -0,0 +1,15 @@
+package com.example.demo.projection;
+
+import com.example.demo.model.Booking;
+
+/**
+ * Result of a single-statement booking update: the row as written plus the
+ * state fields it had immediately before the update.
+ */
+public record BookingTransition(
+        Booking booking,
+        Integer previousCaregiverId,
+        String previousStatus,
+        String previousCaregiverStatus,
+        String previousPaymentStatus) {
+}
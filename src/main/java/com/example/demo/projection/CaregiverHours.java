@@ -0,0 +1,11 @@
+package com.example.demo.projection;
+
+/**
+ * A caregiver's free-text available hours.
+ */
+public interface CaregiverHours {
+
+    Integer getCaregiverId();
+
+    String getAvailableHours();
+}
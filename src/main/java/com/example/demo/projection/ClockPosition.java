@@ -0,0 +1,23 @@
+package com.example.demo.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking's clock-in and clock-out times and coordinates, for the caregivers' last known positions.
+ */
+public interface ClockPosition {
+
+    Integer getCaregiverId();
+
+    LocalDateTime getClockInTime();
+
+    Double getClockInLat();
+
+    Double getClockInLon();
+
+    LocalDateTime getClockOutTime();
+
+    Double getClockOutLat();
+
+    Double getClockOutLon();
+}
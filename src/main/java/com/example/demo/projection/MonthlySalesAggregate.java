@@ -0,0 +1,13 @@
+package com.example.demo.projection;
+
+/**
+ * Completed sales for one calendar month.
+ */
+public interface MonthlySalesAggregate {
+
+    Integer getYear();
+
+    Integer getMonth();
+
+    Double getSales();
+}
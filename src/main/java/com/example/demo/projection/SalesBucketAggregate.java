@@ -0,0 +1,15 @@
+package com.example.demo.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Completed sales for one time bucket, keyed by the bucket's first day.
+ */
+public interface SalesBucketAggregate {
+
+    LocalDate getBucket();
+
+    Double getSales();
+
+    Long getBookings();
+}
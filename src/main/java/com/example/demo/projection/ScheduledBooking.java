@@ -0,0 +1,26 @@
+package com.example.demo.projection;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * The fields the caregiver schedule index needs from a booking, with its service duration.
+ */
+public interface ScheduledBooking {
+
+    Integer getBookingId();
+
+    Integer getServiceId();
+
+    Integer getCaregiverId();
+
+    LocalDate getBookingDate();
+
+    LocalTime getBookingTime();
+
+    String getStatus();
+
+    String getCaregiverStatus();
+
+    Integer getDurationMinutes();
+}
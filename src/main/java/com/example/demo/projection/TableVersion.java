@@ -0,0 +1,13 @@
+package com.example.demo.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count and latest created/updated timestamp of one table, the database side of an ETag.
+ */
+public interface TableVersion {
+
+    Long getRowCount();
+
+    LocalDateTime getLastModified();
+}
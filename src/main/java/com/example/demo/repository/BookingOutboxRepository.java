@@ -0,0 +1,30 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.BookingOutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BookingOutboxRepository extends JpaRepository<BookingOutboxEvent, Long> {
+
+    /**
+     * Undelivered events that are due, oldest first. An event is held back while an earlier
+     * event of the same booking waits for a retry, so each booking's events stay in order.
+     */
+    @Query("SELECT e FROM BookingOutboxEvent e WHERE e.failedAt IS NULL " +
+           "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) " +
+           "AND NOT EXISTS (SELECT 1 FROM BookingOutboxEvent p WHERE p.bookingId = e.bookingId " +
+           "AND p.id < e.id AND p.failedAt IS NULL AND p.nextAttemptAt > :now) " +
+           "ORDER BY e.id")
+    List<BookingOutboxEvent> findDue(@Param("now") LocalDateTime now, Limit limit);
+
+    long countByFailedAtIsNull();
+
+    long countByFailedAtIsNotNull();
+}
@@ -1,48 +1,212 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.BookingListItem;
 import com.example.demo.model.Booking;
+import com.example.demo.projection.ClockPosition;
+import com.example.demo.projection.BookingStatusAggregate;
+import com.example.demo.projection.MonthlySalesAggregate;
+import com.example.demo.projection.SalesBucketAggregate;
+import com.example.demo.projection.ScheduledBooking;
+import com.example.demo.projection.TableVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Integer> {
+public interface BookingRepository extends JpaRepository<Booking, Integer>, BookingTransitionRepository {
+    
+    /*
+     * List queries project straight into BookingListItem and join the user name in the
+     * same statement, instead of loading entities whose EAGER user is fetched row by row.
+     */
+    String LIST_ITEM = "SELECT new com.example.demo.dto.BookingListItem(" +
+            "b.bookingId, b.userId, u.name, b.serviceId, b.caregiverId, b.bookingDate, b.bookingTime, " +
+            "b.status, b.caregiverStatus, b.paymentStatus, b.notes, b.pickupAddress, b.destinationAddress, " +
+            "b.totalPrice, b.createdAt, b.updatedAt, b.clockInTime, b.clockOutTime, b.clockInLocation, b.clockOutLocation) " +
+            "FROM Booking b LEFT JOIN b.user u ";
+    String NEWEST_FIRST = " ORDER BY b.bookingDate DESC, b.bookingTime DESC";
     
     /**
      * Find all bookings for a specific user
      */
-    List<Booking> findByUserIdOrderByBookingDateDescBookingTimeDesc(Integer userId);
+    @Query(LIST_ITEM + "WHERE b.userId = :userId" + NEWEST_FIRST)
+    List<BookingListItem> findListItemsByUserId(@Param("userId") Integer userId);
     
     /**
      * Find all bookings for a specific caregiver
      */
-    List<Booking> findByCaregiverIdOrderByBookingDateDescBookingTimeDesc(Integer caregiverId);
+    @Query(LIST_ITEM + "WHERE b.caregiverId = :caregiverId" + NEWEST_FIRST)
+    List<BookingListItem> findListItemsByCaregiverId(@Param("caregiverId") Integer caregiverId);
     
     /**
      * Find unassigned bookings (no caregiver assigned yet)
      */
-    @Query("SELECT b FROM Booking b WHERE b.caregiverId IS NULL AND b.status IN ('Pending', 'Confirmed') ORDER BY b.bookingDate ASC, b.bookingTime ASC")
-    List<Booking> findUnassignedBookings();
+    @Query(LIST_ITEM + "WHERE b.caregiverId IS NULL AND b.status IN ('Pending', 'Confirmed') ORDER BY b.bookingDate ASC, b.bookingTime ASC")
+    List<BookingListItem> findUnassignedBookings();
     
     /**
      * Find bookings by status
      */
-    List<Booking> findByStatusOrderByBookingDateDesc(String status);
+    @Query(LIST_ITEM + "WHERE b.status = :status ORDER BY b.bookingDate DESC")
+    List<BookingListItem> findListItemsByStatus(@Param("status") String status);
     
     /**
      * Find bookings by payment status
      */
-    List<Booking> findByPaymentStatusOrderByBookingDateDesc(String paymentStatus);
+    @Query(LIST_ITEM + "WHERE b.paymentStatus = :paymentStatus ORDER BY b.bookingDate DESC")
+    List<BookingListItem> findListItemsByPaymentStatus(@Param("paymentStatus") String paymentStatus);
     
     /**
      * Find bookings by caregiver status
      */
     List<Booking> findByCaregiverStatusOrderByBookingDateDesc(String caregiverStatus);
     
+    /**
+     * One booking as a list item (booking change stream)
+     */
+    @Query(LIST_ITEM + "WHERE b.bookingId = :bookingId")
+    Optional<BookingListItem> findListItemById(@Param("bookingId") Integer bookingId);
+    
     /**
      * Find all bookings ordered by date
      */
-    List<Booking> findAllByOrderByBookingDateDescBookingTimeDesc();
+    @Query(LIST_ITEM + NEWEST_FIRST)
+    List<BookingListItem> findAllListItems();
+    
+    /**
+     * Load bookings by ID with their user in one statement (batch operations)
+     */
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.user WHERE b.bookingId IN :ids")
+    List<Booking> findAllWithUserByIdIn(@Param("ids") Collection<Integer> ids);
+    
+    /**
+     * Which of the given user IDs exist (batch create validates them before inserting)
+     */
+    @Query("SELECT u.userId FROM AppUser u WHERE u.userId IN :userIds")
+    List<Integer> findExistingUserIds(@Param("userIds") Collection<Integer> userIds);
+    
+    /**
+     * Which of the given service IDs exist (batch create validates them before inserting)
+     */
+    @Query("SELECT s.serviceId FROM Service s WHERE s.serviceId IN :serviceIds")
+    List<Integer> findExistingServiceIds(@Param("serviceIds") Collection<Integer> serviceIds);
+    
+    /*
+     * Booking windows for the caregiver schedule index: every booking from a date on that is
+     * not cancelled, with its service duration (null if the service no longer exists).
+     */
+    String SCHEDULED_BOOKING = "SELECT b.bookingId AS bookingId, b.serviceId AS serviceId, b.caregiverId AS caregiverId, " +
+            "b.bookingDate AS bookingDate, b.bookingTime AS bookingTime, b.status AS status, " +
+            "b.caregiverStatus AS caregiverStatus, s.durationMinutes AS durationMinutes " +
+            "FROM Booking b LEFT JOIN Service s ON s.serviceId = b.serviceId ";
+    
+    @Query(SCHEDULED_BOOKING + "WHERE b.bookingDate >= :fromDate AND (b.status IS NULL OR LOWER(b.status) <> 'cancelled')")
+    List<ScheduledBooking> findScheduledBookings(@Param("fromDate") LocalDate fromDate);
+    
+    @Query(SCHEDULED_BOOKING + "WHERE b.bookingId = :bookingId")
+    Optional<ScheduledBooking> findScheduledBooking(@Param("bookingId") Integer bookingId);
+    
+    /**
+     * Clock events with coordinates since a time, for the caregivers' last known positions
+     */
+    @Query("SELECT b.caregiverId AS caregiverId, b.clockInTime AS clockInTime, b.clockInLat AS clockInLat, " +
+           "b.clockInLon AS clockInLon, b.clockOutTime AS clockOutTime, b.clockOutLat AS clockOutLat, " +
+           "b.clockOutLon AS clockOutLon FROM Booking b WHERE b.caregiverId IS NOT NULL " +
+           "AND ((b.clockInTime >= :since AND b.clockInLat IS NOT NULL) OR (b.clockOutTime >= :since AND b.clockOutLat IS NOT NULL))")
+    List<ClockPosition> findClockPositionsSince(@Param("since") LocalDateTime since);
+    
+    /*
+     * Keyset pages: bookings strictly after the cursor in (bookingDate, bookingTime, bookingId)
+     * descending order. The row-value comparison lets the database seek straight into the index.
+     */
+    String KEYSET_BEFORE = "(b.bookingDate, b.bookingTime, b.bookingId) < (:date, :time, :id)";
+    String KEYSET_ORDER = " ORDER BY b.bookingDate DESC, b.bookingTime DESC, b.bookingId DESC";
+    
+    @Query(LIST_ITEM + "WHERE " + KEYSET_BEFORE + KEYSET_ORDER)
+    List<BookingListItem> findPage(@Param("date") LocalDate date, @Param("time") LocalTime time,
+                                   @Param("id") Integer id, Limit limit);
+    
+    @Query(LIST_ITEM + "WHERE b.userId = :userId AND " + KEYSET_BEFORE + KEYSET_ORDER)
+    List<BookingListItem> findPageByUserId(@Param("userId") Integer userId, @Param("date") LocalDate date,
+                                           @Param("time") LocalTime time, @Param("id") Integer id, Limit limit);
+    
+    @Query(LIST_ITEM + "WHERE b.caregiverId = :caregiverId AND " + KEYSET_BEFORE + KEYSET_ORDER)
+    List<BookingListItem> findPageByCaregiverId(@Param("caregiverId") Integer caregiverId, @Param("date") LocalDate date,
+                                                @Param("time") LocalTime time, @Param("id") Integer id, Limit limit);
+    
+    @Query(LIST_ITEM + "WHERE b.status = :status AND " + KEYSET_BEFORE + KEYSET_ORDER)
+    List<BookingListItem> findPageByStatus(@Param("status") String status, @Param("date") LocalDate date,
+                                           @Param("time") LocalTime time, @Param("id") Integer id, Limit limit);
+    
+    @Query(LIST_ITEM + "WHERE b.paymentStatus = :paymentStatus AND " + KEYSET_BEFORE + KEYSET_ORDER)
+    List<BookingListItem> findPageByPaymentStatus(@Param("paymentStatus") String paymentStatus, @Param("date") LocalDate date,
+                                                  @Param("time") LocalTime time, @Param("id") Integer id, Limit limit);
+    
+    /**
+     * Dashboard aggregate computed in the database: one row per status with its
+     * booking count and the sum of completed sales
+     */
+    @Query("SELECT b.status AS status, COUNT(b) AS bookingCount, " +
+           "SUM(CASE WHEN LOWER(b.status) = 'completed' THEN COALESCE(b.totalPrice, 0.0) ELSE 0.0 END) AS completedSales " +
+           "FROM Booking b GROUP BY b.status")
+    List<BookingStatusAggregate> aggregateByStatus();
+    
+    /**
+     * Completed sales per calendar month, computed in the database
+     */
+    @Query("SELECT YEAR(b.bookingDate) AS year, MONTH(b.bookingDate) AS month, SUM(COALESCE(b.totalPrice, 0.0)) AS sales " +
+           "FROM Booking b WHERE LOWER(b.status) = 'completed' AND b.bookingDate IS NOT NULL " +
+           "GROUP BY YEAR(b.bookingDate), MONTH(b.bookingDate)")
+    List<MonthlySalesAggregate> aggregateCompletedSalesByMonth();
+    
+    /**
+     * Completed sales grouped by the unit's first day on or before booking_date (weeks start on
+     * Monday) for bookings in [fromDate, toDate), ordered by bucket. unit is one of day, week,
+     * month, year. date_trunc is only given literal units so the query also runs on H2.
+     */
+    @Query(value = "SELECT CASE CAST(:unit AS varchar) " +
+                   "WHEN 'week' THEN CAST(b.booking_date - CAST(EXTRACT(ISODOW FROM b.booking_date) AS integer) + 1 AS date) " +
+                   "WHEN 'month' THEN CAST(date_trunc('month', CAST(b.booking_date AS timestamp)) AS date) " +
+                   "WHEN 'year' THEN CAST(date_trunc('year', CAST(b.booking_date AS timestamp)) AS date) " +
+                   "ELSE b.booking_date END AS bucket, " +
+                   "SUM(COALESCE(b.total_price, 0)) AS sales, COUNT(*) AS bookings " +
+                   "FROM booking b " +
+                   "WHERE LOWER(b.status) = 'completed' AND b.booking_date >= :fromDate AND b.booking_date < :toDate " +
+                   "GROUP BY 1 ORDER BY 1",
+           nativeQuery = true)
+    List<SalesBucketAggregate> aggregateCompletedSalesByBucket(@Param("unit") String unit,
+                                                               @Param("fromDate") LocalDate fromDate,
+                                                               @Param("toDate") LocalDate toDate);
+    
+    /**
+     * Stream every booking with its user for export. Rows are fetched from the cursor in
+     * chunks of EXPORT_FETCH_SIZE; must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.user ORDER BY b.bookingId")
+    Stream<Booking> streamAllForExport();
+
+    /**
+     * Booking count and latest change, for checking the in-memory list ETag against the table
+     */
+    @Query("SELECT COUNT(b) AS rowCount, MAX(COALESCE(b.updatedAt, b.createdAt)) AS lastModified FROM Booking b")
+    TableVersion findTableVersion();
+
+    int EXPORT_FETCH_SIZE = 500;
 }
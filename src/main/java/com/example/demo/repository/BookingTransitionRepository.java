@@ -0,0 +1,44 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.GeoPoint;
+import com.example.demo.projection.BookingTransition;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Booking state changes executed as one conditional UPDATE ... RETURNING statement.
+ * An empty result means no row matched: the booking does not exist or the condition failed.
+ */
+public interface BookingTransitionRepository {
+
+    /**
+     * Assign a caregiver only if the booking has none yet
+     */
+    Optional<BookingTransition> assignCaregiverIfUnassigned(Integer bookingId, Integer caregiverId, LocalDateTime now);
+
+    /**
+     * Set the booking status and keep caregiverStatus in sync with it
+     */
+    Optional<BookingTransition> updateStatus(Integer bookingId, String status, LocalDateTime now);
+
+    Optional<BookingTransition> updatePaymentStatus(Integer bookingId, String paymentStatus, LocalDateTime now);
+
+    Optional<BookingTransition> updateCaregiverStatus(Integer bookingId, String caregiverStatus, LocalDateTime now);
+
+    /**
+     * Record clock-in time, location and its coordinates (null if unknown), check them against a
+     * fenceRadiusMetres geofence around the pickup, and move the booking to In-Progress. With
+     * rejectOutside, a clock-in outside the geofence matches no row.
+     */
+    Optional<BookingTransition> clockIn(Integer bookingId, LocalDateTime clockTime, String location, GeoPoint position,
+                                        double fenceRadiusMetres, boolean rejectOutside, LocalDateTime now);
+
+    /**
+     * Record clock-out time, location and its coordinates (null if unknown), check them against a
+     * fenceRadiusMetres geofence around the destination (the pickup if there is none), and move the
+     * booking to Completed. With rejectOutside, a clock-out outside the geofence matches no row.
+     */
+    Optional<BookingTransition> clockOut(Integer bookingId, LocalDateTime clockTime, String location, GeoPoint position,
+                                         double fenceRadiusMetres, boolean rejectOutside, LocalDateTime now);
+}
@@ -0,0 +1,231 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.GeoPoint;
+import com.example.demo.model.Booking;
+import com.example.demo.projection.BookingTransition;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * PostgreSQL implementation: the subquery locks the row and captures its state (and the
+ * booking's user) before the update, so the previous values and the full updated booking
+ * come back in the same round-trip. Other databases (H2 in the local profile) get the same
+ * result from a locking select, the update and a reload.
+ */
+class BookingTransitionRepositoryImpl implements BookingTransitionRepository {
+
+    // Booking status -> caregiverStatus it implies; other statuses leave caregiverStatus as-is
+    private static final String SYNC_CAREGIVER_STATUS =
+            "CASE :status WHEN 'Confirmed' THEN 'Accepted' WHEN 'In-Progress' THEN 'In-Progress' " +
+            "WHEN 'Completed' THEN 'Completed' WHEN 'Cancelled' THEN 'Cancelled' ELSE b.caregiver_status END";
+
+    // Geofence centres as (lat, lon) column expressions, @ standing for the table alias
+    private static final String[] PICKUP = { "@.pickup_lat", "@.pickup_lon" };
+    private static final String[] DESTINATION_OR_PICKUP = {
+            "CASE WHEN @.destination_lat IS NULL THEN @.pickup_lat ELSE @.destination_lat END",
+            "CASE WHEN @.destination_lat IS NULL THEN @.pickup_lon ELSE @.destination_lon END" };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public Optional<BookingTransition> assignCaregiverIfUnassigned(Integer bookingId, Integer caregiverId, LocalDateTime now) {
+        return transition(bookingId,
+                "caregiver_id = :caregiverId, status = 'Confirmed', caregiver_status = 'Accepted'",
+                "prev.caregiver_id IS NULL",
+                Map.of("caregiverId", caregiverId, "now", now));
+    }
+
+    @Override
+    public Optional<BookingTransition> updateStatus(Integer bookingId, String status, LocalDateTime now) {
+        return transition(bookingId,
+                "status = :status, caregiver_status = " + SYNC_CAREGIVER_STATUS,
+                null,
+                Map.of("status", status, "now", now));
+    }
+
+    @Override
+    public Optional<BookingTransition> updatePaymentStatus(Integer bookingId, String paymentStatus, LocalDateTime now) {
+        return transition(bookingId,
+                "payment_status = :paymentStatus",
+                null,
+                Map.of("paymentStatus", paymentStatus, "now", now));
+    }
+
+    @Override
+    public Optional<BookingTransition> updateCaregiverStatus(Integer bookingId, String caregiverStatus, LocalDateTime now) {
+        return transition(bookingId,
+                "caregiver_status = :caregiverStatus",
+                null,
+                Map.of("caregiverStatus", caregiverStatus, "now", now));
+    }
+
+    @Override
+    public Optional<BookingTransition> clockIn(Integer bookingId, LocalDateTime clockTime, String location, GeoPoint position,
+                                               double fenceRadiusMetres, boolean rejectOutside, LocalDateTime now) {
+        return transition(bookingId,
+                "clock_in_time = :clockTime, clock_in_location = :location, clock_in_lat = :lat, clock_in_lon = :lon, " +
+                geofence("clock_in", "b", PICKUP) + ", status = 'In-Progress', caregiver_status = 'In-Progress'",
+                rejectOutside ? insideGeofence("prev", PICKUP) : null,
+                clockParameters(clockTime, location, position, fenceRadiusMetres, now));
+    }
+
+    @Override
+    public Optional<BookingTransition> clockOut(Integer bookingId, LocalDateTime clockTime, String location, GeoPoint position,
+                                                double fenceRadiusMetres, boolean rejectOutside, LocalDateTime now) {
+        return transition(bookingId,
+                "clock_out_time = :clockTime, clock_out_location = :location, clock_out_lat = :lat, clock_out_lon = :lon, " +
+                geofence("clock_out", "b", DESTINATION_OR_PICKUP) + ", status = 'Completed', caregiver_status = 'Completed'",
+                rejectOutside ? insideGeofence("prev", DESTINATION_OR_PICKUP) : null,
+                clockParameters(clockTime, location, position, fenceRadiusMetres, now));
+    }
+
+    private static Map<String, Object> clockParameters(LocalDateTime clockTime, String location, GeoPoint position,
+                                                       double fenceRadiusMetres, LocalDateTime now) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("clockTime", clockTime);
+        parameters.put("location", location);
+        parameters.put("lat", position != null ? position.lat() : null);
+        parameters.put("lon", position != null ? position.lon() : null);
+        parameters.put("radius", fenceRadiusMetres);
+        parameters.put("now", now);
+        return parameters;
+    }
+
+    /**
+     * SET entries storing the distance from (:lat, :lon) to the geofence centre and the verdict
+     */
+    private static String geofence(String prefix, String alias, String[] centre) {
+        String distance = distanceToCentre(alias, centre);
+        return prefix + "_distance_m = CAST(ROUND(" + distance + ") AS integer), " +
+                prefix + "_geofence = CASE WHEN " + distance + " IS NULL THEN 'Unverified' " +
+                "WHEN " + distance + " <= :radius THEN 'Verified' ELSE 'Outside' END";
+    }
+
+    /**
+     * Predicate on the previous row: not known to be outside the geofence
+     */
+    private static String insideGeofence(String alias, String[] centre) {
+        String distance = distanceToCentre(alias, centre);
+        return "(" + distance + " IS NULL OR " + distance + " <= :radius)";
+    }
+
+    /**
+     * Equirectangular distance in metres from (:lat, :lon) to the row's centre columns, null if
+     * either point is missing; the same formula as GeoPoint.approxDistanceMetres
+     */
+    private static String distanceToCentre(String alias, String[] centre) {
+        String lat = centre[0].replace("@", alias);
+        String lon = centre[1].replace("@", alias);
+        return "(6371008.8 * SQRT(POWER(RADIANS(CAST(:lon AS double precision) - " + lon + ") * " +
+                "COS(RADIANS((CAST(:lat AS double precision) + " + lat + ") / 2)), 2) + " +
+                "POWER(RADIANS(CAST(:lat AS double precision) - " + lat + "), 2)))";
+    }
+
+    /**
+     * UPDATE one booking and return it with its previous state.
+     * The booking must not already be loaded in the current persistence context.
+     *
+     * @param assignments SET clause entries; updated_at and version are always maintained
+     * @param condition   extra predicate on the locked previous row ("prev"), or null
+     */
+    private Optional<BookingTransition> transition(Integer bookingId, String assignments, String condition,
+                                                   Map<String, Object> parameters) {
+        if (!isPostgres()) {
+            return portableTransition(bookingId, assignments, condition, parameters);
+        }
+        String sql = "UPDATE booking b SET " + assignments + ", updated_at = :now, version = b.version + 1 " +
+                "FROM (SELECT p.booking_id, p.caregiver_id, p.status, p.caregiver_status, p.payment_status, " +
+                "             p.pickup_lat, p.pickup_lon, p.destination_lat, p.destination_lon, " +
+                "             u.user_id AS u_user_id, u.name AS u_name " +
+                "      FROM booking p LEFT JOIN app_user u ON u.user_id = p.user_id " +
+                "      WHERE p.booking_id = :bookingId FOR UPDATE OF p) prev " +
+                "WHERE b.booking_id = prev.booking_id" + (condition != null ? " AND " + condition : "") + " " +
+                "RETURNING b.*, prev.u_user_id, prev.u_name, " +
+                "prev.caregiver_id AS prev_caregiver_id, prev.status AS prev_status, " +
+                "prev.caregiver_status AS prev_caregiver_status, prev.payment_status AS prev_payment_status";
+
+        NativeQuery<Object[]> query = entityManager.unwrap(Session.class).createNativeQuery(sql, Object[].class);
+        query.addEntity("b", Booking.class);
+        // The EAGER user comes from the same row instead of a follow-up select
+        query.addFetch("u", "b", "user")
+             .addProperty("userId", "u_user_id")
+             .addProperty("name", "u_name");
+        query.addScalar("prev_caregiver_id", StandardBasicTypes.INTEGER)
+             .addScalar("prev_status", StandardBasicTypes.STRING)
+             .addScalar("prev_caregiver_status", StandardBasicTypes.STRING)
+             .addScalar("prev_payment_status", StandardBasicTypes.STRING);
+        query.setParameter("bookingId", bookingId);
+        parameters.forEach(query::setParameter);
+
+        List<Object[]> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        int i = row.length - 4;
+        return Optional.of(new BookingTransition(
+                (Booking) row[0], (Integer) row[i], (String) row[i + 1], (String) row[i + 2], (String) row[i + 3]));
+    }
+
+    /**
+     * The same transition as three statements, for databases without UPDATE ... FROM ... RETURNING
+     */
+    private Optional<BookingTransition> portableTransition(Integer bookingId, String assignments, String condition,
+                                                           Map<String, Object> parameters) {
+        Query select = entityManager.createNativeQuery(
+                "SELECT prev.caregiver_id, prev.status, prev.caregiver_status, prev.payment_status " +
+                "FROM booking prev WHERE prev.booking_id = :bookingId" +
+                (condition != null ? " AND " + condition : "") + " FOR UPDATE", Object[].class);
+        select.setParameter("bookingId", bookingId);
+        if (condition != null) {
+            // only the parameters the condition uses; binding one the statement lacks is an error
+            parameters.forEach((name, value) -> {
+                if (condition.matches("(?s).*:" + name + "\\b.*")) {
+                    select.setParameter(name, value);
+                }
+            });
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> previous = select.getResultList();
+        if (previous.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Query update = entityManager.createNativeQuery("UPDATE booking b SET " + assignments +
+                ", updated_at = :now, version = b.version + 1 WHERE b.booking_id = :bookingId");
+        update.setParameter("bookingId", bookingId);
+        parameters.forEach(update::setParameter);
+        update.executeUpdate();
+
+        Object[] prev = previous.get(0);
+        return Optional.of(new BookingTransition(entityManager.find(Booking.class, bookingId),
+                (Integer) prev[0], (String) prev[1], (String) prev[2], (String) prev[3]));
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect();
+            result = dialect instanceof PostgreSQLDialect;
+            postgres = result;
+        }
+        return result;
+    }
+}
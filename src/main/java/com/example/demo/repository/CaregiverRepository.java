@@ -1,13 +1,37 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.CaregiverListItem;
 import com.example.demo.model.Caregiver;
+import com.example.demo.projection.CaregiverHours;
+import com.example.demo.projection.TableVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CaregiverRepository extends JpaRepository<Caregiver, Integer> {
-    List<Caregiver> findByIsAvailableTrue();
+    String LIST_ITEM = "SELECT new com.example.demo.dto.CaregiverListItem(" +
+            "c.caregiverId, c.userId, u.name, c.name, c.phone, c.email, c.isAvailable, c.qualifications, " +
+            "c.specialties, c.experienceYears, c.bio, c.availableHours, c.rating, c.profileImage, c.companyId, c.createdAt) " +
+            "FROM Caregiver c LEFT JOIN c.user u ";
+
+    @Query(LIST_ITEM)
+    List<CaregiverListItem> findAllListItems();
+
+    @Query(LIST_ITEM + "WHERE c.isAvailable = true")
+    List<CaregiverListItem> findAvailableListItems();
+
+    @Query(LIST_ITEM + "WHERE c.caregiverId = :caregiverId")
+    Optional<CaregiverListItem> findListItemById(@Param("caregiverId") Integer caregiverId);
+
     Optional<Caregiver> findByUserId(Integer userId);
+
+    @Query("SELECT c.caregiverId AS caregiverId, c.availableHours AS availableHours FROM Caregiver c")
+    List<CaregiverHours> findAllHours();
+
+    @Query("SELECT COUNT(c) AS rowCount, MAX(c.createdAt) AS lastModified FROM Caregiver c")
+    TableVersion findTableVersion();
 }
@@ -1,9 +1,14 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Category;
+import com.example.demo.projection.TableVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Integer> {
+
+    @Query("SELECT COUNT(c) AS rowCount, MAX(c.createdAt) AS lastModified FROM Category c")
+    TableVersion findTableVersion();
 }
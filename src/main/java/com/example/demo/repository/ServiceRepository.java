@@ -1,12 +1,30 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.ServiceListItem;
 import com.example.demo.model.Service;
+import com.example.demo.projection.TableVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface ServiceRepository extends JpaRepository<Service, Integer> {
-    List<Service> findByCategoryId(Integer categoryId);
-    List<Service> findByIsActiveTrue();
+    String LIST_ITEM = "SELECT new com.example.demo.dto.ServiceListItem(" +
+            "s.serviceId, s.serviceName, s.description, s.basePrice, s.durationMinutes, s.categoryId, c.categoryName, " +
+            "s.isActive, s.companyId, s.imageUrl, s.createdAt) " +
+            "FROM Service s LEFT JOIN s.category c ";
+
+    @Query(LIST_ITEM)
+    List<ServiceListItem> findAllListItems();
+
+    @Query(LIST_ITEM + "WHERE s.categoryId = :categoryId")
+    List<ServiceListItem> findListItemsByCategoryId(@Param("categoryId") Integer categoryId);
+
+    @Query(LIST_ITEM + "WHERE s.isActive = true")
+    List<ServiceListItem> findActiveListItems();
+
+    @Query("SELECT COUNT(s) AS rowCount, MAX(s.createdAt) AS lastModified FROM Service s")
+    TableVersion findTableVersion();
 }
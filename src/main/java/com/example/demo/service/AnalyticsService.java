@@ -1,40 +1,35 @@
 package com.example.demo.service;
 
-import com.example.demo.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Month;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class AnalyticsService {
 
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+
     @Autowired
-    private BookingRepository bookingRepository;
+    private BookingAnalyticsState analyticsState;
 
     public Map<String, Object> getDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
         
-        java.util.List<com.example.demo.model.Booking> allBookings = bookingRepository.findAll();
-        System.out.println("DEBUG - Analytics: Found " + allBookings.size() + " total bookings in database.");
-
-        long totalBookings = allBookings.size();
-        double totalSales = allBookings.stream()
-                .filter(b -> "Completed".equalsIgnoreCase(b.getStatus()))
-                .mapToDouble(b -> {
-                    double price = b.getTotalPrice() != null ? b.getTotalPrice() : 0.0;
-                    if (price > 0) System.out.println("DEBUG - Analytics: Found Sale: " + price + " for booking ID " + b.getBookingId());
-                    return price;
-                })
-                .sum();
-
-        Map<String, Long> statusDistribution = allBookings.stream()
-                .collect(Collectors.groupingBy(b -> b.getStatus() != null ? b.getStatus() : "Pending", Collectors.counting()));
+        // Served from the incrementally maintained counters, no table scan
+        long totalBookings = analyticsState.getTotalBookings();
+        double totalSales = analyticsState.getCompletedRevenue();
+        Map<String, Long> statusDistribution = analyticsState.getStatusDistribution();
         
-        System.out.println("DEBUG - Analytics: Status Breakdown: " + statusDistribution);
-        System.out.println("DEBUG - Analytics: Total Sales Calculated: $" + totalSales);
+        if (log.isDebugEnabled()) {
+            log.debug("Dashboard stats: {} bookings, {} completed sales, by status {}", totalBookings, totalSales, statusDistribution);
+        }
 
         stats.put("totalBookings", totalBookings);
         stats.put("totalSales", totalSales);
@@ -44,12 +39,11 @@ public class AnalyticsService {
     }
 
     public Map<String, Double> getSalesTrends() {
-        // Group by Month (simplified for this demo)
-        return bookingRepository.findAll().stream()
-                .filter(b -> "Completed".equalsIgnoreCase(b.getStatus()) && b.getBookingDate() != null)
-                .collect(Collectors.groupingBy(
-                        b -> b.getBookingDate().getMonth().toString(),
-                        Collectors.summingDouble(b -> b.getTotalPrice() != null ? b.getTotalPrice() : 0.0)
-                ));
+        // Keyed by month name ("JANUARY"), summed across years as before; /api/analytics/trends has the dated series
+        Map<Month, Double> byMonth = new EnumMap<>(Month.class);
+        analyticsState.getMonthlyRevenue().forEach((month, sales) -> byMonth.merge(month.getMonth(), sales, Double::sum));
+        Map<String, Double> trends = new LinkedHashMap<>();
+        byMonth.forEach((month, sales) -> trends.put(month.toString(), sales));
+        return trends;
     }
 }
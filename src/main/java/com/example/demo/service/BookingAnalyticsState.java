@@ -0,0 +1,260 @@
+package com.example.demo.service;
+
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingSnapshot;
+import com.example.demo.projection.BookingStatusAggregate;
+import com.example.demo.projection.MonthlySalesAggregate;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.service.ResourceVersions.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory analytics counters kept up to date from booking change events.
+ *
+ * The state is loaded from the database at startup and then only receives deltas,
+ * so dashboard reads never touch the booking table. A periodic reconciliation
+ * compares it with the database and replaces it if the two have drifted apart.
+ *
+ * The counters are an immutable snapshot behind a volatile reference: each change publishes a
+ * new one, so readers never see a half-applied change or a reload in progress. A load reads both
+ * aggregates in one repeatable-read transaction and replays the changes committed while it ran,
+ * so a booking written during a reload is not lost. Only a change committed in the instant
+ * between the start of the load and its first query can be counted twice, until the next reconcile.
+ */
+@Component
+@Lazy(false)
+public class BookingAnalyticsState {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingAnalyticsState.class);
+
+    private static final double SALES_TOLERANCE = 0.005;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ResourceVersions versions;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Guards current and pending; changes are applied under it one at a time
+    private final Object changeLock = new Object();
+    // Only one load at a time; others wait for it instead of loading again
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private volatile Totals current;
+    // Changes committed while a load runs, replayed on top of what it read; null when no load runs
+    private List<BookingChangedEvent> pending;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingChanged(BookingChangedEvent event) {
+        synchronized (changeLock) {
+            if (pending != null) {
+                pending.add(event);
+            }
+            // before the first load there is nothing to update: the load will read the committed row
+            if (current != null) {
+                current = current.apply(event);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.reconcile-interval-ms:300000}",
+               initialDelayString = "${analytics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        load(true);
+    }
+
+    /**
+     * Reload all counters from the database
+     */
+    public void rebuild() {
+        load(false);
+    }
+
+    public long getTotalBookings() {
+        return totals().totalBookings();
+    }
+
+    public double getCompletedRevenue() {
+        return totals().completedRevenue();
+    }
+
+    public Map<String, Long> getStatusDistribution() {
+        Map<String, Long> distribution = new HashMap<>();
+        totals().statusCounts().forEach((status, count) -> {
+            if (count > 0) distribution.put(status, count);
+        });
+        return distribution;
+    }
+
+    public Map<YearMonth, Double> getMonthlyRevenue() {
+        Map<YearMonth, Double> revenue = new TreeMap<>();
+        totals().monthlyRevenue().forEach((month, sales) -> {
+            if (Math.abs(sales) > SALES_TOLERANCE) revenue.put(month, sales);
+        });
+        return revenue;
+    }
+
+    private Totals totals() {
+        Totals totals = current;
+        if (totals == null) {
+            loadLock.lock();
+            try {
+                if (current == null) {
+                    rebuild();
+                }
+            } finally {
+                loadLock.unlock();
+            }
+            totals = current;
+        }
+        return totals;
+    }
+
+    /**
+     * Read the database and publish the result with the changes made meanwhile applied; when
+     * onlyIfDrifted, keep the current state unless it disagrees with the database
+     */
+    private void load(boolean onlyIfDrifted) {
+        loadLock.lock();
+        try {
+            Totals fromDatabase;
+            try {
+                fromDatabase = loadFromDatabase();
+                synchronized (changeLock) {
+                    for (BookingChangedEvent event : pending) {
+                        fromDatabase = fromDatabase.apply(event);
+                    }
+                    if (onlyIfDrifted && current != null) {
+                        if (fromDatabase.matches(current)) {
+                            return;
+                        }
+                        log.warn("Analytics state drifted from database, replacing (memory={}, database={})", current, fromDatabase);
+                    }
+                    current = fromDatabase;
+                }
+            } finally {
+                synchronized (changeLock) {
+                    pending = null;
+                }
+            }
+            if (!onlyIfDrifted) {
+                log.info("Analytics state loaded: {} bookings", fromDatabase.totalBookings());
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private Totals loadFromDatabase() {
+        // one snapshot for both aggregates, so they agree with each other
+        TransactionTemplate snapshotTransaction = new TransactionTemplate(transactionManager);
+        snapshotTransaction.setReadOnly(true);
+        snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        // through versions.read: a lagging replica would look like drift and undo recent changes
+        return versions.read(() -> snapshotTransaction.execute(status -> {
+            synchronized (changeLock) {
+                pending = new ArrayList<>();
+            }
+            Map<String, Long> counts = new HashMap<>();
+            double revenue = 0.0;
+            for (BookingStatusAggregate row : bookingRepository.aggregateByStatus()) {
+                counts.merge(statusKey(row.getStatus()), row.getBookingCount() != null ? row.getBookingCount() : 0L, Long::sum);
+                revenue += row.getCompletedSales() != null ? row.getCompletedSales() : 0.0;
+            }
+            Map<YearMonth, Double> monthly = new HashMap<>();
+            for (MonthlySalesAggregate row : bookingRepository.aggregateCompletedSalesByMonth()) {
+                monthly.put(YearMonth.of(row.getYear(), row.getMonth()), row.getSales() != null ? row.getSales() : 0.0);
+            }
+            return new Totals(Map.copyOf(counts), revenue, Map.copyOf(monthly));
+        }), Resource.BOOKINGS);
+    }
+
+    private static String statusKey(String status) {
+        return status != null ? status : "Pending";
+    }
+
+    private record Totals(Map<String, Long> statusCounts, double completedRevenue, Map<YearMonth, Double> monthlyRevenue) {
+
+        long totalBookings() {
+            return statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        /**
+         * These totals with a change applied: the booking's old state retracted and its new state added
+         */
+        Totals apply(BookingChangedEvent event) {
+            Map<String, Long> counts = new HashMap<>(statusCounts);
+            Map<YearMonth, Double> monthly = new HashMap<>(monthlyRevenue);
+            double revenue = completedRevenue + add(counts, monthly, event.before(), -1) + add(counts, monthly, event.after(), 1);
+            return new Totals(Map.copyOf(counts), revenue, Map.copyOf(monthly));
+        }
+
+        /**
+         * Count the booking with the given sign; returns its change to completed revenue
+         */
+        private static double add(Map<String, Long> counts, Map<YearMonth, Double> monthly, BookingSnapshot booking, int sign) {
+            if (booking == null) {
+                return 0.0;
+            }
+            // statuses counted down to zero are dropped so the counts compare equal to the database's
+            counts.merge(statusKey(booking.status()), (long) sign, (a, b) -> a + b == 0 ? null : a + b);
+            if (!booking.isCompleted()) {
+                return 0.0;
+            }
+            double price = booking.totalPrice() != null ? booking.totalPrice() : 0.0;
+            if (booking.bookingDate() != null) {
+                monthly.merge(YearMonth.from(booking.bookingDate()), sign * price, Double::sum);
+            }
+            return sign * price;
+        }
+
+        boolean matches(Totals other) {
+            if (!statusCounts.equals(other.statusCounts)
+                    || Math.abs(completedRevenue - other.completedRevenue) > SALES_TOLERANCE) {
+                return false;
+            }
+            for (YearMonth month : union(monthlyRevenue, other.monthlyRevenue)) {
+                double a = monthlyRevenue.getOrDefault(month, 0.0);
+                double b = other.monthlyRevenue.getOrDefault(month, 0.0);
+                if (Math.abs(a - b) > SALES_TOLERANCE) return false;
+            }
+            return true;
+        }
+
+        private static Set<YearMonth> union(Map<YearMonth, Double> a, Map<YearMonth, Double> b) {
+            Set<YearMonth> months = new HashSet<>(a.keySet());
+            months.addAll(b.keySet());
+            return months;
+        }
+    }
+}
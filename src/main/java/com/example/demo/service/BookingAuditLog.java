@@ -0,0 +1,61 @@
+package com.example.demo.service;
+
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingEventConsumer;
+import com.example.demo.event.BookingSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Outbox consumer that writes one line per booking change to the "booking-audit" log,
+ * naming the fields that changed.
+ */
+@Component
+public class BookingAuditLog implements BookingEventConsumer {
+
+    private static final Logger audit = LoggerFactory.getLogger("booking-audit");
+
+    @Override
+    public String name() {
+        return "audit-log";
+    }
+
+    @Override
+    public void handle(long eventId, BookingChangedEvent event) {
+        if (!audit.isInfoEnabled()) {
+            return;
+        }
+        audit.info("event={} booking={} type={} {}", eventId, event.bookingId(), event.type(),
+                String.join(" ", changes(event.before(), event.after())));
+    }
+
+    private static List<String> changes(BookingSnapshot before, BookingSnapshot after) {
+        List<String> changes = new ArrayList<>();
+        if (before == null || after == null) {
+            BookingSnapshot booking = after != null ? after : before;
+            changes.add("user=" + booking.userId());
+            changes.add("caregiver=" + booking.caregiverId());
+            changes.add("status=" + booking.status());
+            return changes;
+        }
+        change(changes, "caregiver", before.caregiverId(), after.caregiverId());
+        change(changes, "date", before.bookingDate(), after.bookingDate());
+        change(changes, "time", before.bookingTime(), after.bookingTime());
+        change(changes, "status", before.status(), after.status());
+        change(changes, "caregiverStatus", before.caregiverStatus(), after.caregiverStatus());
+        change(changes, "paymentStatus", before.paymentStatus(), after.paymentStatus());
+        change(changes, "totalPrice", before.totalPrice(), after.totalPrice());
+        return changes;
+    }
+
+    private static void change(List<String> changes, String field, Object before, Object after) {
+        if (!Objects.equals(before, after)) {
+            changes.add(field + "=" + before + "->" + after);
+        }
+    }
+}
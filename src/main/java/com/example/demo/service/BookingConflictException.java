@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+/**
+ * Thrown when a booking change loses to a concurrent one, e.g. the booking was
+ * assigned to another caregiver in the meantime. Mapped to HTTP 409.
+ */
+public class BookingConflictException extends RuntimeException {
+
+    public BookingConflictException(String message) {
+        super(message);
+    }
+}
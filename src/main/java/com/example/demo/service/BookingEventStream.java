@@ -0,0 +1,389 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ReadYourWrites;
+import com.example.demo.dto.BookingListItem;
+import com.example.demo.dto.BookingStreamEvent;
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingSnapshot;
+import com.example.demo.repository.BookingRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed booking changes to Server-Sent Events subscribers, so clients can keep
+ * their lists current instead of polling them.
+ *
+ * One dispatcher thread orders the changes: writers only enqueue after commit, each change is
+ * read back once as a list item however many subscribers receive it, and every subscriber sees
+ * events in commit order. The dispatcher never writes to a client: each subscriber has a bounded
+ * queue drained by one of booking-stream.sender-threads senders, so a stalled client holds at
+ * most one of them until its write fails. With virtual threads each subscriber with events to write
+ * gets its own sender. A client that falls booking-stream.subscriber-queue-size events behind is
+ * disconnected and, on reconnect, resumes from its Last-Event-ID. The most recent events are kept
+ * for that; if a client was gone too long (or the server restarted, or the dispatcher had to drop
+ * changes) it is sent a "reset" event and should reload its list.
+ */
+@Component
+@Lazy(false)
+public class BookingEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingEventStream.class);
+
+    private static final String EVENT_NAME = "booking";
+    private static final String RESET_EVENT_NAME = "reset";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Value("${booking-stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final int maxSubscribers;
+
+    @Value("${booking-stream.replay-size:1000}")
+    private int replaySize;
+
+    @Value("${booking-stream.subscriber-queue-size:256}")
+    private int subscriberQueueSize;
+
+    /**
+     * Which changes a subscriber receives: those whose booking, before or after the change,
+     * belongs to the caregiver or user or is unassigned. With no criteria, every change.
+     */
+    public record Filter(Integer caregiverId, Integer userId, boolean unassigned) {
+
+        boolean matches(BookingChangedEvent event) {
+            if (caregiverId == null && userId == null && !unassigned) {
+                return true;
+            }
+            return matches(event.before()) || matches(event.after());
+        }
+
+        private boolean matches(BookingSnapshot booking) {
+            if (booking == null) {
+                return false;
+            }
+            return (caregiverId != null && caregiverId.equals(booking.caregiverId()))
+                    || (userId != null && userId.equals(booking.userId()))
+                    || (unassigned && booking.caregiverId() == null);
+        }
+    }
+
+    /**
+     * A connected client and the events waiting to be written to it
+     */
+    private static final class Subscriber {
+
+        final SseEmitter emitter;
+        final Filter filter;
+        final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        final AtomicBoolean sending = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        volatile boolean overflowed;
+
+        Subscriber(SseEmitter emitter, Filter filter, int queueSize) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+
+    private record Sent(long sequence, BookingChangedEvent change, BookingStreamEvent message) {
+    }
+
+    // Event IDs are "<epoch>-<sequence>": an ID from before a restart is recognised as stale
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private long sequence = 0; // dispatcher thread only
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Deque<Sent> recent = new ArrayDeque<>(); // dispatcher thread only
+    // Set when a change could not be queued for the dispatcher; subscribers are reset at the next one
+    private final AtomicBoolean changesDropped = new AtomicBoolean();
+
+    private final ThreadPoolExecutor dispatcher;
+
+    // Writes each subscriber's queued events; a subscriber has at most one send queued or running
+    private final ThreadPoolExecutor senders;
+
+    public BookingEventStream(@Value("${booking-stream.dispatch-queue-size:10000}") int dispatchQueueSize,
+                              @Value("${booking-stream.max-subscribers:500}") int maxSubscribers,
+                              @Value("${booking-stream.sender-threads:32}") int senderThreads,
+                              Environment environment) {
+        this.maxSubscribers = maxSubscribers;
+        dispatcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(dispatchQueueSize), task -> {
+            Thread thread = new Thread(task, "booking-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ThreadFactory senderFactory;
+        int senderLimit;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            senderFactory = new VirtualThreadTaskExecutor("booking-stream-send-").getVirtualThreadFactory();
+            senderLimit = maxSubscribers;
+        } else {
+            senderFactory = task -> {
+                Thread thread = new Thread(task, "booking-stream-send");
+                thread.setDaemon(true);
+                return thread;
+            };
+            senderLimit = senderThreads;
+        }
+        senders = new ThreadPoolExecutor(senderLimit, senderLimit, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), senderFactory);
+        senders.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Open a stream; null if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(Filter filter, String lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, filter, subscriberQueueSize);
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(error -> close(subscriber));
+
+        // Replay and registration run on the dispatcher, so nothing is missed or sent twice in between
+        if (!execute(() -> register(subscriber, lastEventId))) {
+            close(subscriber);
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (!execute(() -> dispatch(event)) && !dispatcher.isShutdown()) {
+            changesDropped.set(true);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${booking-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        // also finds clients that stopped reading: their queue fills up and they are disconnected
+        subscribers.forEach(subscriber -> offer(subscriber, SseEmitter.event().comment("keepalive")));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void register(Subscriber subscriber, String lastEventId) {
+        if (!replay(subscriber, lastEventId)) {
+            return;
+        }
+        subscribers.add(subscriber);
+        // the client may have gone before it was added, when removing it did nothing
+        if (subscriber.closed.get()) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private void dispatch(BookingChangedEvent change) {
+        if (changesDropped.getAndSet(false)) {
+            resetAll();
+        }
+        BookingListItem booking = null;
+        if (change.after() != null) {
+            try {
+                // committed a moment ago, so a replica may not have it yet
+                booking = ReadYourWrites.onPrimary(() -> bookingRepository.findListItemById(change.bookingId())).orElse(null);
+            } catch (RuntimeException e) {
+                log.warn("Could not read booking {} for the change stream, sending the change without it", change.bookingId(), e);
+            }
+        }
+        Sent sent = new Sent(++sequence, change, new BookingStreamEvent(change.type(), change.bookingId(), booking, change.before()));
+        recent.addLast(sent);
+        while (recent.size() > replaySize) {
+            recent.removeFirst();
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter.matches(change)) {
+                offer(subscriber, event(sent));
+            }
+        }
+    }
+
+    /**
+     * Changes were dropped before they got a sequence number: skip one, so every earlier event ID is
+     * too old to replay from, and tell the connected clients to reload
+     */
+    private void resetAll() {
+        log.warn("Booking change stream fell behind and dropped changes; resetting its subscribers");
+        recent.clear();
+        sequence++;
+        subscribers.forEach(subscriber -> offer(subscriber, reset()));
+    }
+
+    /**
+     * Queue the "connected" comment and the events after lastEventId that the subscriber missed, or a
+     * reset if they are no longer available or more than its queue holds; false if it is already gone
+     */
+    private boolean replay(Subscriber subscriber, String lastEventId) {
+        // a first write commits the response, so the client sees the stream open before any change arrives
+        if (!offer(subscriber, SseEmitter.event().comment("connected"))) {
+            return false;
+        }
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return true;
+        }
+        Long last = sequenceOf(lastEventId);
+        long oldest = recent.isEmpty() ? sequence + 1 : recent.peekFirst().sequence();
+        if (last == null || last > sequence || last < oldest - 1) {
+            return offer(subscriber, reset());
+        }
+        List<Sent> missed = recent.stream()
+                .filter(sent -> sent.sequence() > last && subscriber.filter.matches(sent.change()))
+                .toList();
+        if (missed.size() >= subscriberQueueSize) {
+            return offer(subscriber, reset());
+        }
+        for (Sent sent : missed) {
+            if (!offer(subscriber, event(sent))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private SseEmitter.SseEventBuilder event(Sent sent) {
+        return SseEmitter.event()
+                .id(eventId(sent.sequence()))
+                .name(EVENT_NAME)
+                .data(sent.message(), MediaType.APPLICATION_JSON);
+    }
+
+    private SseEmitter.SseEventBuilder reset() {
+        return SseEmitter.event().id(eventId(sequence)).name(RESET_EVENT_NAME).data("{}", MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Queue an event for the subscriber without waiting; a subscriber whose queue is full is
+     * disconnected. False if the subscriber is gone.
+     */
+    private boolean offer(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed.get()) {
+            return false;
+        }
+        if (!subscriber.queue.offer(event)) {
+            log.debug("Booking stream subscriber is {} events behind, disconnecting it", subscriberQueueSize);
+            subscriber.overflowed = true;
+            subscriber.queue.clear();
+            close(subscriber);
+        }
+        // an overflowed subscriber's sender completes the emitter, after any write it is blocked in
+        startSending(subscriber);
+        return !subscriber.overflowed;
+    }
+
+    private void startSending(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> send(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.sending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Write the subscriber's queued events (sender thread)
+     */
+    private void send(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!subscriber.overflowed && (event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(event);
+            }
+            if (subscriber.overflowed) {
+                subscriber.emitter.complete(); // the client reconnects and resumes from its Last-Event-ID
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client went away
+            subscriber.emitter.completeWithError(e);
+            close(subscriber);
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // an event queued after the last poll, while this sender was finishing
+        if (!subscriber.queue.isEmpty() && !subscriber.closed.get()) {
+            startSending(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscribers.remove(subscriber);
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private Long sequenceOf(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !Objects.equals(eventId.substring(0, dash), epoch)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Run a task on the dispatcher; false if its queue is full or it is shut down
+     */
+    private boolean execute(Runnable task) {
+        try {
+            dispatcher.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Booking stream dispatcher rejected a task");
+            return false;
+        }
+    }
+}
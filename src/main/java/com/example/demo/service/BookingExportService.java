@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Booking;
+import com.example.demo.repository.BookingRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every booking to an output stream one row at a time.
+ *
+ * Rows come from a server-side cursor and each entity is detached once written,
+ * so memory use does not grow with the number of bookings.
+ */
+@Service
+public class BookingExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String CSV_HEADER = "bookingId,userId,userName,serviceId,caregiverId,bookingDate,bookingTime," +
+            "status,caregiverStatus,paymentStatus,totalPrice,pickupAddress,destinationAddress,createdAt,updatedAt";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public long export(Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long rows = 0;
+        try (Stream<Booking> bookings = bookingRepository.streamAllForExport()) {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                Booking booking = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsv(writer, booking);
+                } else {
+                    writer.write(jsonMapper.writeValueAsString(booking));
+                    writer.write('\n');
+                }
+                entityManager.detach(booking);
+                // Joined users stay managed after the booking is detached; drop them once per fetch
+                if (++rows % BookingRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private void writeCsv(Writer writer, Booking b) throws IOException {
+        Object[] values = {
+                b.getBookingId(), b.getUserId(), b.getUser() != null ? b.getUser().getName() : null,
+                b.getServiceId(), b.getCaregiverId(), b.getBookingDate(), b.getBookingTime(),
+                b.getStatus(), b.getCaregiverStatus(), b.getPaymentStatus(), b.getTotalPrice(),
+                b.getPickupAddress(), b.getDestinationAddress(), b.getCreatedAt(), b.getUpdatedAt()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) writer.write(',');
+            writer.write(csvField(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.demo.service;
+
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingEventConsumer;
+import com.example.demo.model.BookingOutboxEvent;
+import com.example.demo.repository.BookingOutboxRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for booking changes.
+ *
+ * BookingService appends every change to the booking_outbox table in the transaction that makes
+ * it, so a change is recorded exactly when it commits. A single dispatcher thread then delivers
+ * the events, oldest first and in batches, to every BookingEventConsumer bean outside any request
+ * or transaction, and deletes each event once all consumers have handled it. A consumer that throws
+ * gets the event again after an exponential backoff, and later events of the same booking wait
+ * for it; after outbox.max-attempts the event is marked failed and left in the table.
+ *
+ * The dispatcher is woken after each commit, so idle periods cost no queries apart from the
+ * sweep every outbox.sweep-ms that picks up events left over from a restart. Any number of
+ * instances may append events; dispatch assumes one instance per database, so set
+ * outbox.enabled=false on the others.
+ */
+@Component
+@Lazy(false)
+public class BookingOutbox implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingOutbox.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private BookingOutboxRepository outboxRepository;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectProvider<BookingEventConsumer> consumerProvider;
+
+    @Value("${outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.sweep-ms:60000}")
+    private long sweepMs;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.retry-base-ms:1000}")
+    private long retryBaseMs;
+
+    @Value("${outbox.retry-max-ms:600000}")
+    private long retryMaxMs;
+
+    private List<BookingEventConsumer> consumers = List.of();
+    private TransactionTemplate transactionTemplate;
+    private volatile boolean started;
+
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "booking-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Record a change in the caller's transaction; it is delivered only if that transaction commits
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(BookingChangedEvent event) {
+        outboxRepository.save(new BookingOutboxEvent(event.bookingId(), event.type().name(),
+                jsonMapper.writeValueAsString(event)));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("booking.outbox.events", deliveredCount, AtomicLong::get).tag("result", "delivered")
+                .description("Outbox events delivered to every consumer").register(registry);
+        FunctionCounter.builder("booking.outbox.events", retriedCount, AtomicLong::get).tag("result", "retried")
+                .description("Outbox deliveries that failed and were scheduled for a retry").register(registry);
+        FunctionCounter.builder("booking.outbox.events", failedCount, AtomicLong::get).tag("result", "failed")
+                .description("Outbox events given up after outbox.max-attempts").register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Booking outbox dispatch is disabled on this instance");
+            return;
+        }
+        consumers = consumerProvider.orderedStream().toList();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        started = true;
+        dispatcher.scheduleWithFixedDelay(this::wake, 0, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingChanged(BookingChangedEvent event) {
+        wake();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Queue a drain unless one is already queued; a burst of commits costs one pass
+     */
+    private void wake() {
+        if (started && drainQueued.compareAndSet(false, true)) {
+            if (!execute(this::drain)) {
+                drainQueued.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        drainQueued.set(false);
+        try {
+            List<BookingOutboxEvent> due;
+            do {
+                due = outboxRepository.findDue(LocalDateTime.now(), Limit.of(batchSize));
+                deliver(due);
+            } while (due.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Booking outbox dispatch failed, retrying on the next sweep", e);
+        }
+    }
+
+    private void deliver(List<BookingOutboxEvent> due) {
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Long> delivered = new ArrayList<>();
+        List<BookingOutboxEvent> undelivered = new ArrayList<>();
+        Set<Integer> held = new HashSet<>(); // bookings with an earlier event still pending
+        for (BookingOutboxEvent outboxEvent : due) {
+            if (held.contains(outboxEvent.getBookingId())) {
+                continue;
+            }
+            if (deliver(outboxEvent)) {
+                delivered.add(outboxEvent.getId());
+            } else {
+                undelivered.add(outboxEvent);
+                if (outboxEvent.getFailedAt() == null) {
+                    held.add(outboxEvent.getBookingId());
+                }
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                outboxRepository.deleteAllByIdInBatch(delivered);
+            }
+            outboxRepository.saveAll(undelivered);
+        });
+        deliveredCount.addAndGet(delivered.size());
+        undelivered.stream()
+                .filter(outboxEvent -> outboxEvent.getNextAttemptAt() != null && outboxEvent.getFailedAt() == null)
+                .map(outboxEvent -> Duration.between(LocalDateTime.now(), outboxEvent.getNextAttemptAt()))
+                .min(Duration::compareTo)
+                // round up, or the pass runs just before the event is due and finds nothing to retry
+                .ifPresent(delay -> dispatcher.schedule(this::wake, Math.max(delay.toNanos(), 0) + 1_000_000, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Hand one event to every consumer that has not handled it yet; false if any of them failed,
+     * in which case the event is updated for a retry or marked failed
+     */
+    private boolean deliver(BookingOutboxEvent outboxEvent) {
+        BookingChangedEvent event;
+        try {
+            event = jsonMapper.readValue(outboxEvent.getPayload(), BookingChangedEvent.class);
+        } catch (JacksonException e) {
+            outboxEvent.setAttempts(outboxEvent.getAttempts() + 1);
+            giveUp(outboxEvent, "Unreadable payload: " + e.getOriginalMessage());
+            return false;
+        }
+
+        Set<String> done = new LinkedHashSet<>();
+        if (outboxEvent.getDeliveredTo() != null) {
+            done.addAll(Arrays.asList(outboxEvent.getDeliveredTo().split(",")));
+        }
+        String error = null;
+        for (BookingEventConsumer consumer : consumers) {
+            if (done.contains(consumer.name())) {
+                continue;
+            }
+            try {
+                consumer.handle(outboxEvent.getId(), event);
+                done.add(consumer.name());
+            } catch (Exception e) {
+                log.warn("Booking event consumer {} failed on outbox event {} (booking {})",
+                        consumer.name(), outboxEvent.getId(), outboxEvent.getBookingId(), e);
+                if (error == null) {
+                    error = consumer.name() + ": " + e;
+                }
+            }
+        }
+        if (error == null) {
+            return true;
+        }
+
+        outboxEvent.setDeliveredTo(done.isEmpty() ? null : String.join(",", done));
+        outboxEvent.setAttempts(outboxEvent.getAttempts() + 1);
+        if (outboxEvent.getAttempts() >= maxAttempts) {
+            giveUp(outboxEvent, error);
+        } else {
+            long backoff = Math.min(retryMaxMs, retryBaseMs << Math.min(outboxEvent.getAttempts() - 1, 30));
+            outboxEvent.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoff)));
+            outboxEvent.setLastError(truncate(error));
+            retriedCount.incrementAndGet();
+        }
+        return false;
+    }
+
+    private void giveUp(BookingOutboxEvent outboxEvent, String error) {
+        log.error("Giving up on outbox event {} (booking {}, {}) after {} attempts: {}", outboxEvent.getId(),
+                outboxEvent.getBookingId(), outboxEvent.getEventType(), outboxEvent.getAttempts(), error);
+        outboxEvent.setFailedAt(LocalDateTime.now());
+        failedCount.incrementAndGet();
+        outboxEvent.setNextAttemptAt(null);
+        outboxEvent.setLastError(truncate(error));
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private boolean execute(Runnable task) {
+        try {
+            dispatcher.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Booking outbox is shut down, dropping task");
+            return false;
+        }
+    }
+}
@@ -1,33 +1,81 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.BatchItemResult;
+import com.example.demo.dto.BatchResult;
+import com.example.demo.dto.BookingCursor;
+import com.example.demo.dto.BookingListItem;
+import com.example.demo.dto.BookingPage;
+import com.example.demo.dto.BookingStatusChange;
+import com.example.demo.dto.CaregiverAssignment;
+import com.example.demo.dto.GeoPoint;
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingSnapshot;
+import com.example.demo.event.CaregiverLocatedEvent;
 import com.example.demo.model.Booking;
+import com.example.demo.projection.BookingTransition;
 import com.example.demo.repository.BookingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class BookingService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 500;
+    
     @Autowired
     private BookingRepository bookingRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private CaregiverScheduleIndex scheduleIndex;
+    
+    @Autowired
+    private BookingOutbox outbox;
+    
+    @Autowired
+    private Geocoder geocoder;
+    
+    @Value("${geofence.radius-metres:500}")
+    private double geofenceRadiusMetres;
+    
+    @Value("${geofence.enforce:false}")
+    private boolean enforceGeofence;
+    
     /**
      * Get all bookings
      */
-    public List<Booking> getAllBookings() {
-        return bookingRepository.findAllByOrderByBookingDateDescBookingTimeDesc();
+    @Transactional(readOnly = true)
+    public List<BookingListItem> getAllBookings() {
+        return bookingRepository.findAllListItems();
     }
     
     /**
      * Get booking by ID
      */
+    @Transactional(readOnly = true)
     public Optional<Booking> getBookingById(Integer id) {
         return bookingRepository.findById(id);
     }
@@ -35,53 +83,174 @@ public class BookingService {
     /**
      * Get bookings by user ID
      */
-    public List<Booking> getBookingsByUserId(Integer userId) {
-        return bookingRepository.findByUserIdOrderByBookingDateDescBookingTimeDesc(userId);
+    @Transactional(readOnly = true)
+    public List<BookingListItem> getBookingsByUserId(Integer userId) {
+        return bookingRepository.findListItemsByUserId(userId);
     }
     
     /**
      * Get bookings by caregiver ID
      */
-    public List<Booking> getBookingsByCaregiver(Integer caregiverId) {
-        return bookingRepository.findByCaregiverIdOrderByBookingDateDescBookingTimeDesc(caregiverId);
+    @Transactional(readOnly = true)
+    public List<BookingListItem> getBookingsByCaregiver(Integer caregiverId) {
+        return bookingRepository.findListItemsByCaregiverId(caregiverId);
     }
     
     /**
      * Get unassigned bookings
      */
-    public List<Booking> getUnassignedBookings() {
+    @Transactional(readOnly = true)
+    public List<BookingListItem> getUnassignedBookings() {
         return bookingRepository.findUnassignedBookings();
     }
     
     /**
      * Get bookings by status
      */
-    public List<Booking> getBookingsByStatus(String status) {
-        return bookingRepository.findByStatusOrderByBookingDateDesc(status);
+    @Transactional(readOnly = true)
+    public List<BookingListItem> getBookingsByStatus(String status) {
+        return bookingRepository.findListItemsByStatus(status);
     }
     
     /**
      * Get bookings by payment status
      */
-    public List<Booking> getBookingsByPaymentStatus(String paymentStatus) {
-        return bookingRepository.findByPaymentStatusOrderByBookingDateDesc(paymentStatus);
+    @Transactional(readOnly = true)
+    public List<BookingListItem> getBookingsByPaymentStatus(String paymentStatus) {
+        return bookingRepository.findListItemsByPaymentStatus(paymentStatus);
+    }
+    
+    /**
+     * Get one keyset page of all bookings
+     */
+    @Transactional(readOnly = true)
+    public BookingPage<BookingListItem> getAllBookingsPage(Integer limit, String cursor) {
+        return page(limit, cursor, (c, l) ->
+                bookingRepository.findPage(c.bookingDate(), c.bookingTime(), c.bookingId(), l));
     }
     
     /**
-     * Create a new booking
+     * Get one keyset page of bookings by user ID
+     */
+    @Transactional(readOnly = true)
+    public BookingPage<BookingListItem> getBookingsPageByUserId(Integer userId, Integer limit, String cursor) {
+        return page(limit, cursor, (c, l) ->
+                bookingRepository.findPageByUserId(userId, c.bookingDate(), c.bookingTime(), c.bookingId(), l));
+    }
+    
+    /**
+     * Get one keyset page of bookings by caregiver ID
+     */
+    @Transactional(readOnly = true)
+    public BookingPage<BookingListItem> getBookingsPageByCaregiver(Integer caregiverId, Integer limit, String cursor) {
+        return page(limit, cursor, (c, l) ->
+                bookingRepository.findPageByCaregiverId(caregiverId, c.bookingDate(), c.bookingTime(), c.bookingId(), l));
+    }
+    
+    /**
+     * Get one keyset page of bookings by status
+     */
+    @Transactional(readOnly = true)
+    public BookingPage<BookingListItem> getBookingsPageByStatus(String status, Integer limit, String cursor) {
+        return page(limit, cursor, (c, l) ->
+                bookingRepository.findPageByStatus(status, c.bookingDate(), c.bookingTime(), c.bookingId(), l));
+    }
+    
+    /**
+     * Get one keyset page of bookings by payment status
+     */
+    @Transactional(readOnly = true)
+    public BookingPage<BookingListItem> getBookingsPageByPaymentStatus(String paymentStatus, Integer limit, String cursor) {
+        return page(limit, cursor, (c, l) ->
+                bookingRepository.findPageByPaymentStatus(paymentStatus, c.bookingDate(), c.bookingTime(), c.bookingId(), l));
+    }
+    
+    /**
+     * Create a new booking. One created with a caregiver reserves its window in the caregiver's schedule:
+     * save() only assigns the sequence ID here, so the reservation is made before the INSERT is flushed.
+     *
+     * @throws BookingConflictException if the caregiver is booked at that time
      */
     public Booking createBooking(Booking booking) {
-        return bookingRepository.save(booking);
+        geocodeAddresses(booking);
+        Booking saved = bookingRepository.save(booking);
+        if (saved.getCaregiverId() != null) {
+            scheduleIndex.reserve(BookingSnapshot.of(saved));
+        }
+        publish(BookingChangedEvent.Type.CREATED, null, saved);
+        return saved;
+    }
+    
+    /**
+     * Create many bookings in one transaction. Entries missing required fields, naming an unknown
+     * user or service, or overlapping another booking of their caregiver (including earlier entries
+     * of the same batch) are reported and skipped; the rest are inserted as JDBC batches. If a caregiver
+     * is booked concurrently between the check and the reservation, the whole batch is rolled back.
+     */
+    public BatchResult createBookings(List<Booking> bookings) {
+        checkBatchSize(bookings);
+        Set<Integer> userIds = bookings.stream()
+                .filter(Objects::nonNull)
+                .map(Booking::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Integer> existingUserIds = userIds.isEmpty() ? Set.of()
+                : new HashSet<>(bookingRepository.findExistingUserIds(userIds));
+        Set<Integer> serviceIds = bookings.stream()
+                .filter(Objects::nonNull)
+                .map(Booking::getServiceId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Integer> existingServiceIds = serviceIds.isEmpty() ? Set.of()
+                : new HashSet<>(bookingRepository.findExistingServiceIds(serviceIds));
+        
+        List<BatchItemResult> results = new ArrayList<>(bookings.size());
+        String scheduleConflict;
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            if (booking != null) {
+                booking.setBookingId(null); // always insert, never merge into an existing booking
+            }
+            if (booking == null || booking.getUserId() == null || booking.getServiceId() == null
+                    || booking.getBookingDate() == null || booking.getBookingTime() == null) {
+                results.add(BatchItemResult.failed(i, null, 400, "userId, serviceId, bookingDate and bookingTime are required"));
+            } else if (!existingUserIds.contains(booking.getUserId())) {
+                results.add(BatchItemResult.failed(i, null, 404, "User " + booking.getUserId() + " not found"));
+            } else if (!existingServiceIds.contains(booking.getServiceId())) {
+                results.add(BatchItemResult.failed(i, null, 404, "Service " + booking.getServiceId() + " not found"));
+            } else if (booking.getCaregiverId() != null
+                    && (scheduleConflict = scheduleIndex.conflict(BookingSnapshot.of(booking))) != null) {
+                results.add(BatchItemResult.failed(i, null, 409, scheduleConflict));
+            } else {
+                geocodeAddresses(booking);
+                Booking saved = bookingRepository.save(booking);
+                if (saved.getCaregiverId() != null) {
+                    scheduleIndex.reserve(BookingSnapshot.of(saved));
+                }
+                publish(BookingChangedEvent.Type.CREATED, null, saved);
+                results.add(BatchItemResult.ok(i, 201, saved));
+            }
+        }
+        return BatchResult.of(results);
     }
     
     /**
-     * Update an existing booking
+     * Update an existing booking. A caregiver can only be set on an unassigned booking, as with
+     * assignCaregiver; a concurrent assignment fails this update's version check. A new caregiver,
+     * date, time, service or status reserves the booking's window in the caregiver's schedule first.
+     *
+     * @throws BookingConflictException if the booking already has another caregiver or the caregiver is booked at that time
      */
     public Booking updateBooking(Integer id, Booking bookingDetails) {
         Optional<Booking> optionalBooking = bookingRepository.findById(id);
         
         if (optionalBooking.isPresent()) {
             Booking booking = optionalBooking.get();
+            BookingSnapshot before = BookingSnapshot.of(booking);
+            if (bookingDetails.getCaregiverId() != null && before.caregiverId() != null
+                    && !before.caregiverId().equals(bookingDetails.getCaregiverId())) {
+                throw new BookingConflictException("Booking " + id + " is already assigned to a caregiver");
+            }
             
             // Update fields if provided
             if (bookingDetails.getServiceId() != null) {
@@ -108,17 +277,36 @@ public class BookingService {
             if (bookingDetails.getNotes() != null) {
                 booking.setNotes(bookingDetails.getNotes());
             }
+            // a new address drops the old coordinates unless new ones come with it; missing ones are geocoded below
             if (bookingDetails.getPickupAddress() != null) {
                 booking.setPickupAddress(bookingDetails.getPickupAddress());
+                booking.setPickupLat(bookingDetails.getPickupLat());
+                booking.setPickupLon(bookingDetails.getPickupLon());
+            } else if (bookingDetails.getPickupLat() != null && bookingDetails.getPickupLon() != null) {
+                booking.setPickupLat(bookingDetails.getPickupLat());
+                booking.setPickupLon(bookingDetails.getPickupLon());
             }
             if (bookingDetails.getDestinationAddress() != null) {
                 booking.setDestinationAddress(bookingDetails.getDestinationAddress());
+                booking.setDestinationLat(bookingDetails.getDestinationLat());
+                booking.setDestinationLon(bookingDetails.getDestinationLon());
+            } else if (bookingDetails.getDestinationLat() != null && bookingDetails.getDestinationLon() != null) {
+                booking.setDestinationLat(bookingDetails.getDestinationLat());
+                booking.setDestinationLon(bookingDetails.getDestinationLon());
             }
+            geocodeAddresses(booking);
             if (bookingDetails.getTotalPrice() != null) {
                 booking.setTotalPrice(bookingDetails.getTotalPrice());
             }
             
-            return bookingRepository.save(booking);
+            BookingSnapshot after = BookingSnapshot.of(booking);
+            if (scheduleChanged(before, after)) {
+                scheduleIndex.reserve(after);
+            }
+            
+            Booking saved = bookingRepository.save(booking);
+            publish(BookingChangedEvent.Type.UPDATED, before, saved);
+            return saved;
         }
         
         return null;
@@ -126,116 +314,353 @@ public class BookingService {
     
     /**
      * Update booking status — also syncs caregiverStatus to match
+     * (Confirmed → Accepted, In-Progress, Completed and Cancelled carry over; Pending leaves it as-is).
+     * One UPDATE ... RETURNING round-trip; a cancelled booking brought back reserves its window first.
+     *
+     * @throws BookingConflictException if the booking was cancelled and its caregiver has since been booked at that time
      */
     public Booking updateBookingStatus(Integer id, String status) {
-        Optional<Booking> optionalBooking = bookingRepository.findById(id);
+        if (!isCancelled(status) && !scheduleIndex.isScheduled(id)) {
+            // only bookings missing from the schedule can be cancelled ones, so the common case needs no read
+            bookingRepository.findScheduledBooking(id)
+                    .map(row -> new BookingSnapshot(row.getBookingId(), null, row.getServiceId(), row.getCaregiverId(),
+                            row.getBookingDate(), row.getBookingTime(), row.getStatus(), row.getCaregiverStatus(), null, null))
+                    .ifPresent(before -> reserveIfReactivated(before, status));
+        }
+        return bookingRepository.updateStatus(id, status, LocalDateTime.now())
+                .map(t -> publish(BookingChangedEvent.Type.STATUS_CHANGED, t))
+                .orElse(null);
+    }
+    
+    /**
+     * Update the status of many bookings in one transaction: one query loads them and the
+     * changes are flushed as batched, version-checked UPDATEs. caregiverStatus is synced
+     * with the same rules as updateBookingStatus. A cancelled booking brought back whose caregiver
+     * has since been booked at that time is reported as a conflict.
+     */
+    public BatchResult updateBookingStatuses(List<BookingStatusChange> changes) {
+        checkBatchSize(changes);
+        Map<Integer, Booking> bookings = loadForBatch(changes.stream()
+                .filter(Objects::nonNull).map(BookingStatusChange::bookingId));
         
-        if (optionalBooking.isPresent()) {
-            Booking booking = optionalBooking.get();
-            booking.setStatus(status);
-
-            // Keep caregiverStatus in sync with booking status
-            switch (status) {
-                case "Confirmed":    booking.setCaregiverStatus("Accepted");     break;
-                case "In-Progress": booking.setCaregiverStatus("In-Progress");  break;
-                case "Completed":   booking.setCaregiverStatus("Completed");    break;
-                case "Cancelled":   booking.setCaregiverStatus("Cancelled");    break;
-                // "Pending" → leave caregiverStatus as-is (no caregiver yet)
+        List<BatchItemResult> results = new ArrayList<>(changes.size());
+        String scheduleConflict;
+        for (int i = 0; i < changes.size(); i++) {
+            BookingStatusChange change = changes.get(i);
+            Booking booking = change != null ? bookings.get(change.bookingId()) : null;
+            if (change == null || change.bookingId() == null || change.status() == null) {
+                results.add(BatchItemResult.failed(i, null, 400, "bookingId and status are required"));
+            } else if (booking == null) {
+                results.add(BatchItemResult.failed(i, change.bookingId(), 404, "Booking " + change.bookingId() + " not found"));
+            } else if ((scheduleConflict = reserveSchedule(BookingSnapshot.of(booking), change.status())) != null) {
+                results.add(BatchItemResult.failed(i, change.bookingId(), 409, scheduleConflict));
+            } else {
+                BookingSnapshot before = BookingSnapshot.of(booking);
+                booking.setStatus(change.status());
+                booking.setCaregiverStatus(syncedCaregiverStatus(change.status(), booking.getCaregiverStatus()));
+                publish(BookingChangedEvent.Type.STATUS_CHANGED, before, booking);
+                results.add(BatchItemResult.ok(i, 200, booking));
             }
-
-            return bookingRepository.save(booking);
         }
-        
-        return null;
+        return BatchResult.of(results);
     }
     
     /**
      * Update payment status
      */
     public Booking updatePaymentStatus(Integer id, String paymentStatus) {
-        Optional<Booking> optionalBooking = bookingRepository.findById(id);
+        return bookingRepository.updatePaymentStatus(id, paymentStatus, LocalDateTime.now())
+                .map(t -> publish(BookingChangedEvent.Type.PAYMENT_STATUS_CHANGED, t))
+                .orElse(null);
+    }
+    
+    /**
+     * Assign caregiver to booking — a single conditional UPDATE that only succeeds
+     * while the booking is unassigned, so concurrent dispatchers cannot both win.
+     * The caregiver's schedule is checked for overlapping bookings first.
+     *
+     * @throws BookingConflictException if the booking already has a caregiver or the caregiver is booked at that time
+     */
+    public Booking assignCaregiver(Integer bookingId, Integer caregiverId) {
+        scheduleIndex.reserve(bookingId, caregiverId);
+        Optional<BookingTransition> transition = bookingRepository.assignCaregiverIfUnassigned(
+                bookingId, caregiverId, LocalDateTime.now());
         
-        if (optionalBooking.isPresent()) {
-            Booking booking = optionalBooking.get();
-            booking.setPaymentStatus(paymentStatus);
-            return bookingRepository.save(booking);
+        if (transition.isPresent()) {
+            return publish(BookingChangedEvent.Type.CAREGIVER_ASSIGNED, transition.get());
+        }
+        if (bookingRepository.existsById(bookingId)) {
+            throw new BookingConflictException("Booking " + bookingId + " is already assigned to a caregiver");
         }
-        
         return null;
     }
     
     /**
-     * Assign caregiver to booking
+     * Assign caregivers to many bookings in one transaction. Bookings that already have a
+     * caregiver, or overlap another booking of the caregiver (including earlier entries of
+     * the same batch), are reported as conflicts; if one is assigned concurrently before the batch
+     * commits, its version check fails and the whole batch is rolled back.
      */
-    public Booking assignCaregiver(Integer bookingId, Integer caregiverId) {
-        Optional<Booking> optionalBooking = bookingRepository.findById(bookingId);
+    public BatchResult assignCaregivers(List<CaregiverAssignment> assignments) {
+        checkBatchSize(assignments);
+        Map<Integer, Booking> bookings = loadForBatch(assignments.stream()
+                .filter(Objects::nonNull).map(CaregiverAssignment::bookingId));
         
-        if (optionalBooking.isPresent()) {
-            Booking booking = optionalBooking.get();
-            booking.setCaregiverId(caregiverId);
-            booking.setStatus("Confirmed");
-            booking.setCaregiverStatus("Accepted");
-            return bookingRepository.save(booking);
+        List<BatchItemResult> results = new ArrayList<>(assignments.size());
+        String scheduleConflict;
+        for (int i = 0; i < assignments.size(); i++) {
+            CaregiverAssignment assignment = assignments.get(i);
+            Booking booking = assignment != null ? bookings.get(assignment.bookingId()) : null;
+            if (assignment == null || assignment.bookingId() == null || assignment.caregiverId() == null) {
+                results.add(BatchItemResult.failed(i, null, 400, "bookingId and caregiverId are required"));
+            } else if (booking == null) {
+                results.add(BatchItemResult.failed(i, assignment.bookingId(), 404, "Booking " + assignment.bookingId() + " not found"));
+            } else if (booking.getCaregiverId() != null) {
+                results.add(BatchItemResult.failed(i, assignment.bookingId(), 409,
+                        "Booking " + assignment.bookingId() + " is already assigned to a caregiver"));
+            } else if ((scheduleConflict = reserveSchedule(assignment)) != null) {
+                results.add(BatchItemResult.failed(i, assignment.bookingId(), 409, scheduleConflict));
+            } else {
+                BookingSnapshot before = BookingSnapshot.of(booking);
+                booking.setCaregiverId(assignment.caregiverId());
+                booking.setStatus("Confirmed");
+                booking.setCaregiverStatus("Accepted");
+                publish(BookingChangedEvent.Type.CAREGIVER_ASSIGNED, before, booking);
+                results.add(BatchItemResult.ok(i, 200, booking));
+            }
         }
-        
-        return null;
+        return BatchResult.of(results);
     }
     
     /**
      * Update caregiver status
      */
     public Booking updateCaregiverStatus(Integer id, String caregiverStatus) {
-        Optional<Booking> optionalBooking = bookingRepository.findById(id);
-        
-        if (optionalBooking.isPresent()) {
-            Booking booking = optionalBooking.get();
-            booking.setCaregiverStatus(caregiverStatus);
-            return bookingRepository.save(booking);
-        }
-        
-        return null;
+        return bookingRepository.updateCaregiverStatus(id, caregiverStatus, LocalDateTime.now())
+                .map(t -> publish(BookingChangedEvent.Type.CAREGIVER_STATUS_CHANGED, t))
+                .orElse(null);
     }
 
     /**
-     * Caregiver clock in — timestamp stored in SGT (UTC+8)
+     * Caregiver clock in — timestamp stored in SGT (UTC+8). position is where the device is, or null
+     * to geocode the location; it is checked against a geofence around the booking's pickup.
+     *
+     * @throws GeofenceException if geofence.enforce is on and the position is outside the geofence
      */
-    public Booking clockIn(Integer id, String location) {
-        Optional<Booking> optionalBooking = bookingRepository.findById(id);
-        if (optionalBooking.isPresent()) {
-            Booking booking = optionalBooking.get();
-            booking.setClockInTime(LocalDateTime.now(ZoneId.of("Asia/Singapore")));
-            booking.setClockInLocation(location);
-            booking.setStatus("In-Progress");
-            booking.setCaregiverStatus("In-Progress");
-            return bookingRepository.save(booking);
+    public Booking clockIn(Integer id, String location, GeoPoint position) {
+        LocalDateTime clockTime = LocalDateTime.now(ZoneId.of("Asia/Singapore"));
+        GeoPoint point = position != null ? position : geocoder.geocode(location).orElse(null);
+        Optional<BookingTransition> transition = bookingRepository.clockIn(id, clockTime, location, point,
+                geofenceRadiusMetres, enforceGeofence, LocalDateTime.now());
+        if (transition.isEmpty()) {
+            checkRejectedByGeofence(id, point, false);
+            return null;
         }
-        return null;
+        return publish(BookingChangedEvent.Type.CLOCKED_IN, located(transition.get(), point, clockTime));
     }
 
     /**
-     * Caregiver clock out — timestamp stored in SGT (UTC+8)
+     * Caregiver clock out — timestamp stored in SGT (UTC+8). position is where the device is, or null
+     * to geocode the location; it is checked against a geofence around the booking's destination (the pickup if there is none).
+     *
+     * @throws GeofenceException if geofence.enforce is on and the position is outside the geofence
      */
-    public Booking clockOut(Integer id, String location) {
-        Optional<Booking> optionalBooking = bookingRepository.findById(id);
-        if (optionalBooking.isPresent()) {
-            Booking booking = optionalBooking.get();
-            booking.setClockOutTime(LocalDateTime.now(ZoneId.of("Asia/Singapore")));
-            booking.setClockOutLocation(location);
-            booking.setStatus("Completed");
-            booking.setCaregiverStatus("Completed");
-            return bookingRepository.save(booking);
+    public Booking clockOut(Integer id, String location, GeoPoint position) {
+        LocalDateTime clockTime = LocalDateTime.now(ZoneId.of("Asia/Singapore"));
+        GeoPoint point = position != null ? position : geocoder.geocode(location).orElse(null);
+        Optional<BookingTransition> transition = bookingRepository.clockOut(id, clockTime, location, point,
+                geofenceRadiusMetres, enforceGeofence, LocalDateTime.now());
+        if (transition.isEmpty()) {
+            checkRejectedByGeofence(id, point, true);
+            return null;
         }
-        return null;
+        return publish(BookingChangedEvent.Type.CLOCKED_OUT, located(transition.get(), point, clockTime));
     }
     
     /**
      * Delete a booking
      */
     public boolean deleteBooking(Integer id) {
-        if (bookingRepository.existsById(id)) {
-            bookingRepository.deleteById(id);
+        Optional<Booking> optionalBooking = bookingRepository.findById(id);
+        if (optionalBooking.isPresent()) {
+            BookingSnapshot before = BookingSnapshot.of(optionalBooking.get());
+            bookingRepository.delete(optionalBooking.get());
+            publish(BookingChangedEvent.Type.DELETED, before, null);
             return true;
         }
         return false;
     }
+    
+    /**
+     * Reject empty and oversized batches
+     */
+    private static void checkBatchSize(List<?> entries) {
+        if (entries == null || entries.isEmpty() || entries.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch must contain between 1 and " + MAX_BATCH_SIZE + " entries");
+        }
+    }
+    
+    /**
+     * Geocode the pickup and destination addresses that have no coordinates yet
+     */
+    private void geocodeAddresses(Booking booking) {
+        if (booking.getPickupLat() == null || booking.getPickupLon() == null) {
+            GeoPoint pickup = geocoder.geocode(booking.getPickupAddress()).orElse(null);
+            booking.setPickupLat(pickup != null ? pickup.lat() : null);
+            booking.setPickupLon(pickup != null ? pickup.lon() : null);
+        }
+        if (booking.getDestinationLat() == null || booking.getDestinationLon() == null) {
+            GeoPoint destination = geocoder.geocode(booking.getDestinationAddress()).orElse(null);
+            booking.setDestinationLat(destination != null ? destination.lat() : null);
+            booking.setDestinationLon(destination != null ? destination.lon() : null);
+        }
+    }
+    
+    /**
+     * Tell the caregiver locator where the booking's caregiver clocked in or out, once the transaction commits
+     */
+    private BookingTransition located(BookingTransition transition, GeoPoint position, LocalDateTime clockTime) {
+        Integer caregiverId = transition.booking().getCaregiverId();
+        if (caregiverId != null && position != null) {
+            eventPublisher.publishEvent(new CaregiverLocatedEvent(caregiverId, position, clockTime));
+        }
+        return transition;
+    }
+    
+    /**
+     * A clock event matched no row: if the booking exists, the geofence turned it away
+     */
+    private void checkRejectedByGeofence(Integer id, GeoPoint point, boolean clockOut) {
+        if (!enforceGeofence || point == null) {
+            return;
+        }
+        bookingRepository.findById(id).ifPresent(booking -> {
+            GeoPoint destination = GeoPoint.of(booking.getDestinationLat(), booking.getDestinationLon());
+            boolean toDestination = clockOut && destination != null;
+            GeoPoint centre = toDestination ? destination : GeoPoint.of(booking.getPickupLat(), booking.getPickupLon());
+            throw new GeofenceException(String.format("Clock-%s for booking %d is %.0f m from the %s, outside the %.0f m geofence",
+                    clockOut ? "out" : "in", id, point.approxDistanceMetres(centre),
+                    toDestination ? "destination" : "pickup", geofenceRadiusMetres));
+        });
+    }
+    
+    /**
+     * Reserve the caregiver's schedule for a batch entry; the conflict message, or null if reserved
+     */
+    private String reserveSchedule(CaregiverAssignment assignment) {
+        try {
+            scheduleIndex.reserve(assignment.bookingId(), assignment.caregiverId());
+            return null;
+        } catch (BookingConflictException e) {
+            return e.getMessage();
+        }
+    }
+    
+    /**
+     * Reserve the schedule for a batch status change; the conflict message, or null if reserved or not needed
+     */
+    private String reserveSchedule(BookingSnapshot before, String status) {
+        try {
+            reserveIfReactivated(before, status);
+            return null;
+        } catch (BookingConflictException e) {
+            return e.getMessage();
+        }
+    }
+    
+    /**
+     * A cancelled booking moved to an active status occupies its caregiver again: reserve its window
+     * with the same check as updateBooking
+     *
+     * @throws BookingConflictException if the caregiver has since been booked at that time
+     */
+    private void reserveIfReactivated(BookingSnapshot before, String status) {
+        if (!isCancelled(before.status()) || isCancelled(status)) {
+            return;
+        }
+        BookingSnapshot after = before.withState(before.caregiverId(), status,
+                syncedCaregiverStatus(status, before.caregiverStatus()), before.paymentStatus());
+        if (scheduleChanged(before, after)) {
+            scheduleIndex.reserve(after);
+        }
+    }
+    
+    /**
+     * Load the bookings a batch refers to, with their users, in one query
+     */
+    private Map<Integer, Booking> loadForBatch(Stream<Integer> bookingIds) {
+        Set<Integer> ids = bookingIds.filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return bookingRepository.findAllWithUserByIdIn(ids).stream()
+                .collect(Collectors.toMap(Booking::getBookingId, Function.identity()));
+    }
+    
+    /**
+     * Whether an update changes the caregiver a booking occupies or the window it occupies them for
+     */
+    private static boolean scheduleChanged(BookingSnapshot before, BookingSnapshot after) {
+        return !Objects.equals(before.caregiverId(), after.caregiverId())
+                || !Objects.equals(before.bookingDate(), after.bookingDate())
+                || !Objects.equals(before.bookingTime(), after.bookingTime())
+                || !Objects.equals(before.serviceId(), after.serviceId())
+                || !Objects.equals(before.status(), after.status())
+                || !Objects.equals(before.caregiverStatus(), after.caregiverStatus());
+    }
+    
+    private static boolean isCancelled(String status) {
+        return "Cancelled".equalsIgnoreCase(status);
+    }
+    
+    /**
+     * caregiverStatus implied by a booking status; mirrors the CASE in BookingTransitionRepositoryImpl
+     */
+    private static String syncedCaregiverStatus(String status, String caregiverStatus) {
+        return switch (status) {
+            case "Confirmed" -> "Accepted";
+            case "In-Progress", "Completed", "Cancelled" -> status;
+            default -> caregiverStatus;
+        };
+    }
+    
+    /**
+     * Run a keyset query for limit + 1 rows; the extra row only tells us whether another page exists
+     */
+    private BookingPage<BookingListItem> page(Integer limit, String cursor, BiFunction<BookingCursor, Limit, List<BookingListItem>> query) {
+        int size = limit != null ? Math.max(1, Math.min(limit, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+        List<BookingListItem> rows = query.apply(BookingCursor.decode(cursor), Limit.of(size + 1));
+        
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+            BookingListItem last = rows.get(size - 1);
+            nextCursor = new BookingCursor(last.bookingDate(), last.bookingTime(), last.bookingId()).encode();
+        }
+        return new BookingPage<>(rows, size, nextCursor);
+    }
+    
+    /**
+     * Publish the change made by a single-statement transition and return the updated booking
+     */
+    private Booking publish(BookingChangedEvent.Type type, BookingTransition transition) {
+        BookingSnapshot after = BookingSnapshot.of(transition.booking());
+        BookingSnapshot before = after.withState(transition.previousCaregiverId(), transition.previousStatus(),
+                transition.previousCaregiverStatus(), transition.previousPaymentStatus());
+        publish(new BookingChangedEvent(type, before, after));
+        return transition.booking();
+    }
+    
+    private void publish(BookingChangedEvent.Type type, BookingSnapshot before, Booking after) {
+        publish(new BookingChangedEvent(type, before, BookingSnapshot.of(after)));
+    }
+    
+    /**
+     * Record a change in the outbox, in this transaction, and publish it; transactional
+     * listeners receive it after commit and the outbox consumers shortly after
+     */
+    private void publish(BookingChangedEvent event) {
+        outbox.append(event);
+        eventPublisher.publishEvent(event);
+    }
 }
@@ -0,0 +1,302 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.GeoPoint;
+import com.example.demo.event.CaregiverLocatedEvent;
+import com.example.demo.projection.ClockPosition;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.service.ResourceVersions.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory spatial index of the caregivers' last known positions, for nearest-caregiver queries.
+ *
+ * A caregiver's position is where they last clocked in or out with a location that could be
+ * geocoded. Positions are bucketed into a grid of CELL_DEGREES cells (about 1.1 km); a k-nearest
+ * query scans the cells around the point ring by ring and stops once the k-th best distance is
+ * within the nearest unscanned ring, so its cost depends on how many caregivers are nearby rather
+ * than on how many there are. Where the rings would cover more cells than are occupied (few,
+ * far-apart caregivers) the occupied cells are scanned instead.
+ *
+ * It is loaded at startup from the last caregiver-locator.max-age-days of clock events, follows
+ * committed clock-ins and clock-outs, and is rebuilt periodically to pick up other instances' events.
+ * Changes that land while a rebuild reads the database are replayed on the rebuilt index.
+ */
+@Component
+@Lazy(false)
+public class CaregiverLocator {
+
+    private static final Logger log = LoggerFactory.getLogger(CaregiverLocator.class);
+
+    public static final int DEFAULT_K = 5;
+    public static final int MAX_K = 50;
+
+    private static final double CELL_DEGREES = 0.01;
+    private static final double METRES_PER_DEGREE = 111_195.0;
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Singapore");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ResourceVersions versions;
+
+    @Value("${caregiver-locator.max-age-days:30}")
+    private int maxAgeDays;
+
+    /**
+     * A caregiver's last known position; seenAt is the clock time (SGT)
+     */
+    public record Position(Integer caregiverId, GeoPoint point, LocalDateTime seenAt) {
+    }
+
+    /**
+     * A caregiver found by nearest(), with its distance from the query point
+     */
+    public record Neighbour(Position position, double distanceMetres) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Only one rebuild at a time; the first queries wait for the initial one instead of loading again
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final Map<Integer, Position> positions = new HashMap<>();
+    // cell key -> caregivers positioned in the cell
+    private final Map<Long, Set<Integer>> cells = new HashMap<>();
+
+    private volatile boolean loaded = false;
+    // Changes made while a rebuild runs, replayed on the rebuilt index; null otherwise
+    private List<Runnable> changesDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reload the positions from the recent clock events in the database
+     */
+    @Scheduled(fixedDelayString = "${caregiver-locator.rebuild-interval-ms:600000}",
+               initialDelayString = "${caregiver-locator.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LocalDateTime since = LocalDateTime.now(ZONE).minusDays(maxAgeDays);
+            // through versions.read, so a rebuild never loses a clock event the replica has not caught up with
+            List<ClockPosition> rows = versions.read(() -> bookingRepository.findClockPositionsSince(since), Resource.BOOKINGS);
+            Map<Integer, Position> latest = new HashMap<>();
+            for (ClockPosition row : rows) {
+                keepLatest(latest, row.getCaregiverId(), GeoPoint.of(row.getClockInLat(), row.getClockInLon()), row.getClockInTime());
+                keepLatest(latest, row.getCaregiverId(), GeoPoint.of(row.getClockOutLat(), row.getClockOutLon()), row.getClockOutTime());
+            }
+            lock.writeLock().lock();
+            try {
+                positions.clear();
+                cells.clear();
+                latest.values().forEach(this::add);
+                changesDuringRebuild.forEach(Runnable::run);
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Caregiver locator loaded: {} positions in {} cells", positions.size(), cells.size());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCaregiverLocated(CaregiverLocatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            change(() -> {
+                Position current = positions.get(event.caregiverId());
+                if (current == null || !event.at().isBefore(current.seenAt())) {
+                    remove(current);
+                    add(new Position(event.caregiverId(), event.position(), event.at()));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer caregiverId) {
+        lock.writeLock().lock();
+        try {
+            change(() -> remove(positions.get(caregiverId)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to k caregivers accepted by the filter, nearest to the point first
+     */
+    public List<Neighbour> nearest(GeoPoint point, int k, Predicate<Integer> filter) {
+        ensureLoaded();
+        Comparator<Neighbour> byDistance = Comparator.comparingDouble(Neighbour::distanceMetres);
+        // the k best so far, farthest on top
+        PriorityQueue<Neighbour> best = new PriorityQueue<>(k + 1, byDistance.reversed());
+        long row = row(point.lat());
+        long column = column(point.lon());
+        lock.readLock().lock();
+        try {
+            for (int ring = 0; ; ring++) {
+                if (ring > 0 && 8L * ring > cells.size()) {
+                    // the ring has more cells than there are occupied cells: scan the rest directly
+                    for (Map.Entry<Long, Set<Integer>> cell : cells.entrySet()) {
+                        long key = cell.getKey();
+                        if (Math.max(Math.abs((key >> 32) - row), Math.abs((int) key - column)) >= ring) {
+                            collect(cell.getValue(), point, k, filter, best);
+                        }
+                    }
+                    break;
+                }
+                for (long r = row - ring; r <= row + ring; r++) {
+                    boolean edgeRow = r == row - ring || r == row + ring;
+                    for (long c = column - ring; c <= column + ring; c += edgeRow || ring == 0 ? 1 : 2L * ring) {
+                        Set<Integer> caregiverIds = cells.get(key(r, c));
+                        if (caregiverIds != null) {
+                            collect(caregiverIds, point, k, filter, best);
+                        }
+                    }
+                }
+                if (best.size() == k && best.peek().distanceMetres() <= unscannedBound(point, ring)) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Neighbour> result = new ArrayList<>(best);
+        result.sort(byDistance);
+        return result;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            rebuildLock.lock();
+            try {
+                if (!loaded) {
+                    rebuild();
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+
+    // Callers hold the write lock
+    private void change(Runnable change) {
+        change.run();
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    private void collect(Set<Integer> caregiverIds, GeoPoint point, int k, Predicate<Integer> filter,
+                         PriorityQueue<Neighbour> best) {
+        for (Integer caregiverId : caregiverIds) {
+            Position position = positions.get(caregiverId);
+            double distance = point.distanceMetres(position.point());
+            if ((best.size() < k || distance < best.peek().distanceMetres()) && filter.test(caregiverId)) {
+                best.add(new Neighbour(position, distance));
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Least distance from the point to a cell outside the rings scanned so far
+     */
+    private static double unscannedBound(GeoPoint point, int ring) {
+        // cells narrow towards the poles: use their width at the far edge of the next ring
+        double farLat = Math.min(90, Math.abs(point.lat()) + (ring + 1) * CELL_DEGREES);
+        return ring * CELL_DEGREES * METRES_PER_DEGREE * Math.cos(Math.toRadians(farLat));
+    }
+
+    private static void keepLatest(Map<Integer, Position> latest, Integer caregiverId, GeoPoint point, LocalDateTime at) {
+        if (point == null || at == null) {
+            return;
+        }
+        Position current = latest.get(caregiverId);
+        if (current == null || at.isAfter(current.seenAt())) {
+            latest.put(caregiverId, new Position(caregiverId, point, at));
+        }
+    }
+
+    private void add(Position position) {
+        positions.put(position.caregiverId(), position);
+        cells.computeIfAbsent(key(position.point()), k -> new HashSet<>()).add(position.caregiverId());
+    }
+
+    private void remove(Position position) {
+        if (position == null) {
+            return;
+        }
+        positions.remove(position.caregiverId());
+        long key = key(position.point());
+        Set<Integer> cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(position.caregiverId());
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    private static long row(double lat) {
+        return (long) Math.floor(lat / CELL_DEGREES);
+    }
+
+    private static long column(double lon) {
+        return (long) Math.floor(lon / CELL_DEGREES);
+    }
+
+    private static long key(GeoPoint point) {
+        return key(row(point.lat()), column(point.lon()));
+    }
+
+    private static long key(long row, long column) {
+        return (row << 32) | (column & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BookingListItem;
+import com.example.demo.dto.BookingMatches;
+import com.example.demo.dto.CaregiverListItem;
+import com.example.demo.dto.CaregiverMatch;
+import com.example.demo.dto.ServiceListItem;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.CaregiverRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Ranks available caregivers for unassigned bookings.
+ *
+ * Each caregiver is scored on how many of the booking's service and category keywords appear
+ * in their specialties and qualifications, their rating, experience, current load and whether
+ * the booking is inside their available hours. Caregivers with an overlapping booking are left
+ * out. Caregiver features are precomputed as keyword bitsets over the service vocabulary, and
+ * each booking keeps only its top k in a bounded min-heap, so a booking costs one pass over the
+ * caregivers with no sorting.
+ */
+@Service
+public class CaregiverMatchingService {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Singapore");
+
+    private static final int DEFAULT_K = 5;
+    private static final int MAX_K = 50;
+
+    // Score weights, summing to 1
+    private static final double SPECIALTY_WEIGHT = 0.40;
+    private static final double RATING_WEIGHT = 0.20;
+    private static final double EXPERIENCE_WEIGHT = 0.15;
+    private static final double LOAD_WEIGHT = 0.15;
+    private static final double AVAILABILITY_WEIGHT = 0.10;
+
+    private static final double UNRATED = 0.6; // an unrated caregiver scores like a 3.0 rating
+    private static final int EXPERIENCE_CAP_YEARS = 20;
+
+    // Features are rebuilt when caregivers are saved, when the service catalog changes, or after this long
+    private static final long FEATURES_MAX_AGE_MS = 60_000;
+
+    private static final Set<String> STOP_WORDS = Set.of("and", "the", "for", "with", "care", "service", "services");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CaregiverRepository caregiverRepository;
+
+    @Autowired
+    private ServiceEntityService serviceEntityService;
+
+    @Autowired
+    private CaregiverScheduleIndex scheduleIndex;
+
+    @Value("${schedule.default-duration-minutes:60}")
+    private int defaultDurationMinutes;
+
+    @Value("${schedule.enforce-availability:false}")
+    private boolean enforceAvailability;
+
+    private volatile Features features;
+
+    private record ServiceFeatures(BitSet keywords, int keywordCount, int durationMinutes) {
+    }
+
+    private record CaregiverFeatures(int caregiverId, String name, BitSet keywords, double rating, double experience,
+                                     BigDecimal rawRating, Integer experienceYears) {
+    }
+
+    private record Features(List<ServiceListItem> catalog, long builtAt, Map<Integer, ServiceFeatures> services,
+                            CaregiverFeatures[] caregivers) {
+    }
+
+    /**
+     * The top k caregivers for every unassigned booking from today on, in booking date order
+     */
+    public List<BookingMatches> matchUnassigned(Integer k) {
+        Features current = features();
+        Map<Integer, Integer> loads = scheduleIndex.upcomingBookingCounts();
+        LocalDate today = LocalDate.now(ZONE);
+        List<BookingMatches> matches = new ArrayList<>();
+        for (BookingListItem booking : bookingRepository.findUnassignedBookings()) {
+            if (booking.bookingDate() != null && !booking.bookingDate().isBefore(today) && booking.bookingTime() != null) {
+                matches.add(match(current, loads, booking.bookingId(), booking.serviceId(),
+                        booking.bookingDate(), booking.bookingTime(), null, topK(k)));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * The top k caregivers for one booking (assigned or not); empty if the booking does not exist
+     */
+    public Optional<BookingMatches> matchBooking(Integer bookingId, Integer k) {
+        Features current = features();
+        Map<Integer, Integer> loads = scheduleIndex.upcomingBookingCounts();
+        return bookingRepository.findScheduledBooking(bookingId)
+                .filter(booking -> booking.getBookingDate() != null && booking.getBookingTime() != null)
+                .map(booking -> match(current, loads, booking.getBookingId(), booking.getServiceId(),
+                        booking.getBookingDate(), booking.getBookingTime(), booking.getCaregiverId(), topK(k)));
+    }
+
+    /**
+     * Drop the precomputed caregiver features, e.g. after a caregiver is saved
+     */
+    public void invalidate() {
+        features = null;
+    }
+
+    private BookingMatches match(Features current, Map<Integer, Integer> loads, Integer bookingId, Integer serviceId,
+                                 LocalDate date, LocalTime time, Integer assignedCaregiverId, int k) {
+        ServiceFeatures service = serviceId != null ? current.services().get(serviceId) : null;
+        int duration = service != null ? service.durationMinutes() : defaultDurationMinutes;
+        LocalDateTime start = LocalDateTime.of(date, time);
+        LocalDateTime end = start.plusMinutes(duration);
+        Set<Integer> busy = scheduleIndex.busyCaregivers(start, end);
+
+        // Min-heap of the best k so far: the head is the weakest candidate, replaced when a better one comes along
+        Comparator<CaregiverMatch> weakestFirst = Comparator.comparingDouble(CaregiverMatch::score)
+                .thenComparing(CaregiverMatch::caregiverId, Comparator.reverseOrder());
+        PriorityQueue<CaregiverMatch> best = new PriorityQueue<>(k + 1, weakestFirst);
+
+        for (CaregiverFeatures caregiver : current.caregivers()) {
+            int id = caregiver.caregiverId();
+            if (busy.contains(id) && !Integer.valueOf(id).equals(assignedCaregiverId)) {
+                continue;
+            }
+            boolean within = scheduleIndex.getAvailability(id).covers(start, end);
+            if (enforceAvailability && !within) {
+                continue;
+            }
+            double specialty = specialtyMatch(service, caregiver);
+            int load = loads.getOrDefault(id, 0);
+            double score = round(SPECIALTY_WEIGHT * specialty
+                    + RATING_WEIGHT * caregiver.rating()
+                    + EXPERIENCE_WEIGHT * caregiver.experience()
+                    + LOAD_WEIGHT / (1 + load)
+                    + AVAILABILITY_WEIGHT * (within ? 1 : 0));
+            if (best.size() == k) {
+                CaregiverMatch weakest = best.peek();
+                if (score < weakest.score() || (score == weakest.score() && id > weakest.caregiverId())) {
+                    continue;
+                }
+                best.poll();
+            }
+            best.add(new CaregiverMatch(id, caregiver.name(), score, round(specialty), caregiver.rawRating(),
+                    caregiver.experienceYears(), load, within));
+        }
+
+        List<CaregiverMatch> ranked = new ArrayList<>(best);
+        ranked.sort(weakestFirst.reversed());
+        return new BookingMatches(bookingId, serviceId, date, time, ranked);
+    }
+
+    private static double specialtyMatch(ServiceFeatures service, CaregiverFeatures caregiver) {
+        if (service == null || service.keywordCount() == 0) {
+            return 0.0;
+        }
+        int matched = 0;
+        BitSet wanted = service.keywords();
+        for (int i = wanted.nextSetBit(0); i >= 0; i = wanted.nextSetBit(i + 1)) {
+            if (caregiver.keywords().get(i)) matched++;
+        }
+        return (double) matched / service.keywordCount();
+    }
+
+    private Features features() {
+        List<ServiceListItem> catalog = serviceEntityService.getAllServices();
+        Features current = features;
+        if (current != null && current.catalog() == catalog
+                && System.currentTimeMillis() - current.builtAt() < FEATURES_MAX_AGE_MS) {
+            return current;
+        }
+        current = buildFeatures(catalog);
+        features = current;
+        return current;
+    }
+
+    private Features buildFeatures(List<ServiceListItem> catalog) {
+        Map<String, Integer> vocabulary = new HashMap<>();
+        Map<Integer, ServiceFeatures> services = new HashMap<>();
+        for (ServiceListItem service : catalog) {
+            BitSet keywords = new BitSet();
+            String categoryName = service.category() != null ? service.category().categoryName() : null;
+            for (String word : keywords(service.serviceName(), categoryName)) {
+                keywords.set(vocabulary.computeIfAbsent(word, w -> vocabulary.size()));
+            }
+            int duration = service.durationMinutes() != null && service.durationMinutes() > 0
+                    ? service.durationMinutes() : defaultDurationMinutes;
+            services.put(service.serviceId(), new ServiceFeatures(keywords, keywords.cardinality(), duration));
+        }
+
+        List<CaregiverListItem> available = caregiverRepository.findAvailableListItems();
+        CaregiverFeatures[] caregivers = new CaregiverFeatures[available.size()];
+        for (int i = 0; i < caregivers.length; i++) {
+            CaregiverListItem caregiver = available.get(i);
+            BitSet keywords = new BitSet();
+            for (String word : keywords(caregiver.specialties(), caregiver.qualifications())) {
+                Integer index = vocabulary.get(word);
+                if (index != null) keywords.set(index);
+            }
+            double rating = caregiver.rating() != null
+                    ? Math.max(0.0, Math.min(1.0, caregiver.rating().doubleValue() / 5.0)) : UNRATED;
+            int years = caregiver.experienceYears() != null ? Math.max(0, caregiver.experienceYears()) : 0;
+            double experience = (double) Math.min(years, EXPERIENCE_CAP_YEARS) / EXPERIENCE_CAP_YEARS;
+            caregivers[i] = new CaregiverFeatures(caregiver.caregiverId(), caregiver.name(), keywords, rating, experience,
+                    caregiver.rating(), caregiver.experienceYears());
+        }
+        return new Features(catalog, System.currentTimeMillis(), services, caregivers);
+    }
+
+    /**
+     * Lower-case words of the given texts, without stop words and short words, with plural "s" removed
+     */
+    private static Set<String> keywords(String... texts) {
+        Set<String> words = new HashSet<>();
+        for (String text : texts) {
+            if (text == null) continue;
+            for (String word : text.toLowerCase(Locale.ROOT).split("[^a-z]+")) {
+                if (word.length() < 3 || STOP_WORDS.contains(word)) continue;
+                if (word.length() > 4 && word.endsWith("s") && !word.endsWith("ss")) {
+                    word = word.substring(0, word.length() - 1);
+                }
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static int topK(Integer k) {
+        return k != null ? Math.max(1, Math.min(k, MAX_K)) : DEFAULT_K;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,520 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ReadYourWrites;
+import com.example.demo.dto.ScheduleCheck;
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingSnapshot;
+import com.example.demo.model.Service;
+import com.example.demo.projection.CaregiverHours;
+import com.example.demo.projection.ScheduledBooking;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.CaregiverRepository;
+import com.example.demo.repository.ServiceRepository;
+import com.example.demo.service.ResourceVersions.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory caregiver schedules for double-booking detection.
+ *
+ * Every booking that is not cancelled and not in the past has a [start, start + service
+ * duration) window. Windows of assigned bookings are kept in one IntervalTree per caregiver,
+ * so checking an assignment for overlaps is O(log n) instead of a scan of the caregiver's
+ * bookings. The index is loaded at startup, follows committed booking changes, and is
+ * rebuilt daily to drop past bookings.
+ *
+ * Assignments reserve their window before the UPDATE runs, so two concurrent assignments
+ * of one caregiver to overlapping bookings cannot both pass; the reservation is undone if
+ * the transaction rolls back. Schedules are per instance.
+ *
+ * Changes made while a rebuild reads the database (committed bookings, reservations, available
+ * hours) are recorded and replayed on the rebuilt index, so none is lost to the swap.
+ */
+@Component
+@Lazy(false)
+public class CaregiverScheduleIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CaregiverScheduleIndex.class);
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Singapore");
+
+    // Stands in for the ID of a booking that has not been saved yet; sequence IDs start at 1
+    private static final int UNSAVED = 0;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CaregiverRepository caregiverRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private ResourceVersions versions;
+
+    @Value("${schedule.default-duration-minutes:60}")
+    private int defaultDurationMinutes;
+
+    @Value("${schedule.enforce-availability:false}")
+    private boolean enforceAvailability;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Only one rebuild at a time; the first lookups wait for the initial one instead of loading again
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // bookingId -> window, for every indexed booking; caregiverId -> windows of the bookings it occupies
+    private Map<Integer, Window> windows = new HashMap<>();
+    private Map<Integer, IntervalTree> schedules = new HashMap<>();
+
+    private final Map<Integer, WeeklyAvailability> availability = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> serviceDurations = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded = false;
+    // Changes applied while a rebuild runs, replayed once it swaps in the new maps; null otherwise
+    private List<Runnable> changesDuringRebuild;
+
+    /**
+     * A booking's time window and the caregiver it occupies (null if unassigned, rejected or cancelled)
+     */
+    private record Window(int bookingId, Integer caregiverId, LocalDateTime start, LocalDateTime end) {
+
+        long startMinute() {
+            return start.toEpochSecond(ZoneOffset.UTC) / 60;
+        }
+
+        long endMinute() {
+            return end.toEpochSecond(ZoneOffset.UTC) / 60;
+        }
+
+        Window assignedTo(Integer caregiverId) {
+            return new Window(bookingId, caregiverId, start, end);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${schedule.rebuild-cron:0 30 3 * * *}", zone = "Asia/Singapore")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            load();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            rebuildLock.unlock();
+        }
+    }
+
+    private void load() {
+        LocalDate from = indexedFrom();
+        serviceDurations.clear(); // re-read durations in case services were edited
+        Map<Integer, Window> newWindows = new HashMap<>();
+        Map<Integer, IntervalTree> newSchedules = new HashMap<>();
+        // through versions.read, so the index never drops a booking the replica has not caught up with
+        List<ScheduledBooking> bookings = versions.read(() -> bookingRepository.findScheduledBookings(from), Resource.BOOKINGS);
+        List<CaregiverHours> hours = versions.read(caregiverRepository::findAllHours, Resource.CAREGIVERS);
+        for (ScheduledBooking row : bookings) {
+            Window window = window(row);
+            if (window != null) {
+                newWindows.put(window.bookingId(), window);
+                if (window.caregiverId() != null) {
+                    newSchedules.computeIfAbsent(window.caregiverId(), id -> new IntervalTree())
+                            .put(window.bookingId(), window.startMinute(), window.endMinute());
+                }
+            }
+        }
+        Map<Integer, WeeklyAvailability> newAvailability = new HashMap<>();
+        for (CaregiverHours row : hours) {
+            newAvailability.put(row.getCaregiverId(), WeeklyAvailability.parse(row.getAvailableHours()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            windows = newWindows;
+            schedules = newSchedules;
+            availability.clear();
+            availability.putAll(newAvailability);
+            changesDuringRebuild.forEach(Runnable::run);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long unparsed = newAvailability.values().stream().filter(a -> !a.parsed()).count();
+        log.info("Caregiver schedules loaded: {} bookings from {}, {} caregivers ({} with unrecognised available hours)",
+                newWindows.size(), from, newAvailability.size(), unparsed);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingChanged(BookingChangedEvent event) {
+        // applied even before the first load: if that load is running, it replays the change
+        Window window = event.after() != null ? window(event.after()) : null;
+        int bookingId = event.bookingId();
+        lock.writeLock().lock();
+        try {
+            if (window != null) {
+                change(() -> index(window));
+            } else {
+                change(() -> unindex(bookingId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Check a caregiver against a booking without changing anything; null if the booking does not exist
+     */
+    public ScheduleCheck check(Integer bookingId, Integer caregiverId) {
+        Window window = findWindow(bookingId);
+        if (window == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return check(window, caregiverId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reserve a booking's window in a caregiver's schedule ahead of assigning it. Must be called
+     * inside the assigning transaction: if that rolls back, the reservation is undone. Does
+     * nothing if the booking does not exist.
+     *
+     * @throws BookingConflictException if the caregiver has an overlapping booking, or the booking is
+     *         outside their available hours and schedule.enforce-availability is set
+     */
+    public void reserve(Integer bookingId, Integer caregiverId) {
+        Window window = findWindow(bookingId);
+        if (window != null) {
+            reserve(window.assignedTo(caregiverId));
+        }
+    }
+
+    /**
+     * Reserve the window a booking will have once an update to its caregiver, date, time, service
+     * or status commits, with the same checks and rollback as reserve(bookingId, caregiverId).
+     * Does nothing if the booking will not occupy a caregiver (unassigned, rejected, cancelled or past).
+     */
+    public void reserve(BookingSnapshot booking) {
+        ensureLoaded();
+        Window window = window(booking);
+        if (window != null && window.caregiverId() != null) {
+            reserve(window);
+        }
+    }
+
+    /**
+     * Whether the booking is indexed; those that are not are cancelled, past, or not seen yet
+     */
+    public boolean isScheduled(Integer bookingId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return windows.containsKey(bookingId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Why a booking could not be reserved: an overlapping booking of its caregiver, or a window
+     * outside their available hours when schedule.enforce-availability is set. Null if it can, or if
+     * it will not occupy a caregiver. Changes nothing; the booking may not have been saved yet.
+     */
+    public String conflict(BookingSnapshot booking) {
+        ensureLoaded();
+        Window window = window(booking);
+        if (window == null || window.caregiverId() == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return conflict(window);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Caregivers with a booking overlapping [start, end); one O(log n) probe per caregiver schedule
+     */
+    public Set<Integer> busyCaregivers(LocalDateTime start, LocalDateTime end) {
+        ensureLoaded();
+        long from = start.toEpochSecond(ZoneOffset.UTC) / 60;
+        long to = end.toEpochSecond(ZoneOffset.UTC) / 60;
+        Set<Integer> busy = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            schedules.forEach((caregiverId, schedule) -> {
+                if (schedule.overlapsAny(from, to)) busy.add(caregiverId);
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return busy;
+    }
+
+    /**
+     * Number of upcoming bookings assigned to each caregiver that has any
+     */
+    public Map<Integer, Integer> upcomingBookingCounts() {
+        ensureLoaded();
+        Map<Integer, Integer> counts = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            schedules.forEach((caregiverId, schedule) -> counts.put(caregiverId, schedule.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    /**
+     * The caregiver's parsed available hours; unrestricted if none are on record
+     */
+    public WeeklyAvailability getAvailability(Integer caregiverId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return availability.getOrDefault(caregiverId, WeeklyAvailability.UNRESTRICTED);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void updateAvailability(Integer caregiverId, String availableHours) {
+        WeeklyAvailability hours = WeeklyAvailability.parse(availableHours);
+        lock.writeLock().lock();
+        try {
+            change(() -> availability.put(caregiverId, hours));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCaregiver(Integer caregiverId) {
+        lock.writeLock().lock();
+        try {
+            change(() -> availability.remove(caregiverId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reserve(Window window) {
+        lock.writeLock().lock();
+        try {
+            String conflict = conflict(window);
+            if (conflict != null) {
+                throw new BookingConflictException(conflict);
+            }
+            Window previous = windows.get(window.bookingId());
+            change(() -> index(window));
+            undoOnRollback(window.bookingId(), previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private String conflict(Window window) {
+        ScheduleCheck check = check(window, window.caregiverId());
+        if (check.hasConflicts()) {
+            return "Caregiver " + window.caregiverId() + " has overlapping booking(s) " + check.conflictingBookingIds();
+        }
+        if (enforceAvailability && !check.withinAvailability()) {
+            return (window.bookingId() != UNSAVED ? "Booking " + window.bookingId() : "The booking")
+                    + " is outside caregiver " + window.caregiverId() + "'s available hours";
+        }
+        return null;
+    }
+
+    private ScheduleCheck check(Window window, Integer caregiverId) {
+        IntervalTree schedule = schedules.get(caregiverId);
+        List<Integer> conflicts = schedule == null ? List.of()
+                : schedule.overlapping(window.startMinute(), window.endMinute()).stream()
+                        .filter(id -> id != window.bookingId())
+                        .toList();
+        WeeklyAvailability hours = availability.getOrDefault(caregiverId, WeeklyAvailability.UNRESTRICTED);
+        return new ScheduleCheck(window.bookingId(), caregiverId, window.start(), window.end(), conflicts,
+                hours.covers(window.start(), window.end()), hours.parsed());
+    }
+
+    private void undoOnRollback(int bookingId, Window previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                lock.writeLock().lock();
+                try {
+                    if (previous != null) {
+                        change(() -> index(previous));
+                    } else {
+                        change(() -> unindex(bookingId));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        });
+    }
+
+    // Callers hold the write lock
+    private void change(Runnable change) {
+        change.run();
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    private void index(Window window) {
+        unindex(window.bookingId());
+        windows.put(window.bookingId(), window);
+        if (window.caregiverId() != null) {
+            schedules.computeIfAbsent(window.caregiverId(), id -> new IntervalTree())
+                    .put(window.bookingId(), window.startMinute(), window.endMinute());
+        }
+    }
+
+    private void unindex(int bookingId) {
+        Window old = windows.remove(bookingId);
+        if (old != null && old.caregiverId() != null) {
+            IntervalTree schedule = schedules.get(old.caregiverId());
+            if (schedule != null) {
+                schedule.remove(bookingId);
+                if (schedule.size() == 0) {
+                    schedules.remove(old.caregiverId());
+                }
+            }
+        }
+    }
+
+    /**
+     * The booking's window from the index, or from the database for bookings the index does not
+     * hold (past bookings, or bookings changed by another instance)
+     */
+    private Window findWindow(Integer bookingId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Window window = windows.get(bookingId);
+            if (window != null) {
+                return window;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ReadYourWrites.onPrimary(() -> bookingRepository.findScheduledBooking(bookingId))
+                .map(row -> window(row.getBookingId(), row.getCaregiverId(), row.getCaregiverStatus(),
+                        row.getBookingDate(), row.getBookingTime(), duration(row.getDurationMinutes())))
+                .orElse(null);
+    }
+
+    private Window window(ScheduledBooking row) {
+        if (row.getBookingDate() == null || row.getBookingTime() == null || isCancelled(row.getStatus())) {
+            return null;
+        }
+        if (row.getServiceId() != null && row.getDurationMinutes() != null) {
+            serviceDurations.putIfAbsent(row.getServiceId(), row.getDurationMinutes());
+        }
+        return window(row.getBookingId(), row.getCaregiverId(), row.getCaregiverStatus(),
+                row.getBookingDate(), row.getBookingTime(), duration(row.getDurationMinutes()));
+    }
+
+    private Window window(BookingSnapshot booking) {
+        if (booking.bookingDate() == null || booking.bookingTime() == null || isCancelled(booking.status())
+                || booking.bookingDate().isBefore(indexedFrom())) {
+            return null;
+        }
+        return window(booking.bookingId(), booking.caregiverId(), booking.caregiverStatus(),
+                booking.bookingDate(), booking.bookingTime(), durationOf(booking.serviceId()));
+    }
+
+    private Window window(Integer bookingId, Integer caregiverId, String caregiverStatus,
+                          LocalDate date, LocalTime time, int durationMinutes) {
+        LocalDateTime start = LocalDateTime.of(date, time);
+        Integer occupying = "Rejected".equalsIgnoreCase(caregiverStatus) ? null : caregiverId;
+        return new Window(bookingId != null ? bookingId : UNSAVED, occupying, start, start.plusMinutes(durationMinutes));
+    }
+
+    private int durationOf(Integer serviceId) {
+        if (serviceId == null) {
+            return defaultDurationMinutes;
+        }
+        // a missing service maps to null, which computeIfAbsent does not cache, so it is looked up again once created
+        return duration(serviceDurations.computeIfAbsent(serviceId, id -> serviceRepository.findById(id)
+                .map(Service::getDurationMinutes)
+                .orElse(null)));
+    }
+
+    private int duration(Integer durationMinutes) {
+        return durationMinutes != null && durationMinutes > 0 ? durationMinutes : defaultDurationMinutes;
+    }
+
+    private static boolean isCancelled(String status) {
+        return "Cancelled".equalsIgnoreCase(status);
+    }
+
+    private static LocalDate indexedFrom() {
+        return LocalDate.now(ZONE).minusDays(1);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            rebuildLock.lock();
+            try {
+                if (!loaded) {
+                    rebuild();
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CaregiverListItem;
+import com.example.demo.repository.CaregiverRepository;
+import com.example.demo.service.ResourceVersions.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index for caregiver search over specialties, qualifications and bio.
+ *
+ * Texts are split into lower-case words (plural "s" removed) and each word maps to the caregivers
+ * whose fields contain it. The words are kept sorted, so every query word also matches as a prefix
+ * ("wheel" finds "wheelchair"). A caregiver must match every query word; hits are ranked by where
+ * the words were found (specialties over qualifications over bio, whole words over prefixes), then
+ * by rating. The index holds the list items themselves, so a search never touches the database.
+ *
+ * It is built at startup, updated by CaregiverService on every save and delete, and rebuilt
+ * periodically to pick up changes made by other instances. Saves and deletes that land while a
+ * rebuild reads the database are replayed on the rebuilt index.
+ */
+@Component
+@Lazy(false)
+public class CaregiverSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CaregiverSearchIndex.class);
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    // Field bits in a posting; weight() says what a match in each is worth, a prefix match counts half
+    private static final int SPECIALTIES = 1;
+    private static final int QUALIFICATIONS = 2;
+    private static final int BIO = 4;
+
+    @Autowired
+    private CaregiverRepository caregiverRepository;
+
+    @Autowired
+    private ResourceVersions versions;
+
+    // Changes take the write lock, searches the read lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Only one rebuild at a time; the first searches wait for the initial one instead of loading again
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final Map<Integer, CaregiverListItem> caregivers = new HashMap<>();
+    // word -> caregiver ID -> field bits
+    private final NavigableMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+
+    private volatile boolean loaded = false;
+    // Changes made while a rebuild runs, replayed on the rebuilt index; null otherwise
+    private List<Runnable> changesDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reload every caregiver from the database
+     */
+    @Scheduled(fixedDelayString = "${caregiver-search.rebuild-interval-ms:600000}",
+               initialDelayString = "${caregiver-search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // through versions.read, so a rebuild never drops a caregiver the replica has not caught up with
+            List<CaregiverListItem> rows = versions.read(caregiverRepository::findAllListItems, Resource.CAREGIVERS);
+            lock.writeLock().lock();
+            try {
+                caregivers.clear();
+                postings.clear();
+                for (CaregiverListItem caregiver : rows) {
+                    add(caregiver);
+                }
+                changesDuringRebuild.forEach(Runnable::run);
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Caregiver search index loaded: {} caregivers, {} words", rows.size(), postings.size());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Index a new or changed caregiver
+     */
+    public void put(CaregiverListItem caregiver) {
+        lock.writeLock().lock();
+        try {
+            change(() -> {
+                remove(caregiver.caregiverId(), caregivers.get(caregiver.caregiverId()));
+                add(caregiver);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer caregiverId) {
+        lock.writeLock().lock();
+        try {
+            change(() -> remove(caregiverId, caregivers.get(caregiverId)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The indexed caregiver, or null if there is none with this ID
+     */
+    public CaregiverListItem get(Integer caregiverId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return caregivers.get(caregiverId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Caregivers matching every word of the query (all of them for a blank query) and the filters,
+     * best match first; null filters are not applied
+     */
+    public List<CaregiverListItem> search(String query, Boolean available, Integer companyId, BigDecimal minRating,
+                                          Integer limit) {
+        ensureLoaded();
+        Set<String> words = words(query);
+        int max = limit != null ? Math.max(1, Math.min(limit, MAX_LIMIT)) : DEFAULT_LIMIT;
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = words.isEmpty() ? unscored() : null;
+            for (String word : words) {
+                scores = intersect(scores, match(word));
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            record Hit(CaregiverListItem caregiver, double score) {
+            }
+            List<Hit> hits = new ArrayList<>();
+            for (Map.Entry<Integer, Double> scored : scores.entrySet()) {
+                CaregiverListItem caregiver = caregivers.get(scored.getKey());
+                if (matchesFilters(caregiver, available, companyId, minRating)) {
+                    hits.add(new Hit(caregiver, scored.getValue()));
+                }
+            }
+            Comparator<BigDecimal> ratings = Comparator.nullsFirst(Comparator.naturalOrder());
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                    .thenComparing(hit -> hit.caregiver().rating(), ratings.reversed())
+                    .thenComparing(hit -> hit.caregiver().caregiverId()));
+            return hits.stream().limit(max).map(Hit::caregiver).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            rebuildLock.lock();
+            try {
+                if (!loaded) {
+                    rebuild();
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+
+    // Callers hold the write lock
+    private void change(Runnable change) {
+        change.run();
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    private void add(CaregiverListItem caregiver) {
+        caregivers.put(caregiver.caregiverId(), caregiver);
+        Map<String, Integer> fields = fields(caregiver);
+        fields.forEach((word, bits) -> postings.computeIfAbsent(word, w -> new HashMap<>())
+                .put(caregiver.caregiverId(), bits));
+    }
+
+    private void remove(Integer caregiverId, CaregiverListItem indexed) {
+        if (indexed == null) {
+            return;
+        }
+        caregivers.remove(caregiverId);
+        for (String word : fields(indexed).keySet()) {
+            Map<Integer, Integer> posting = postings.get(word);
+            if (posting != null) {
+                posting.remove(caregiverId);
+                if (posting.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Each word of the caregiver's searchable fields with the bits of the fields it occurs in
+     */
+    private static Map<String, Integer> fields(CaregiverListItem caregiver) {
+        Map<String, Integer> fields = new HashMap<>();
+        for (String word : words(caregiver.specialties())) fields.merge(word, SPECIALTIES, (a, b) -> a | b);
+        for (String word : words(caregiver.qualifications())) fields.merge(word, QUALIFICATIONS, (a, b) -> a | b);
+        for (String word : words(caregiver.bio())) fields.merge(word, BIO, (a, b) -> a | b);
+        return fields;
+    }
+
+    /**
+     * Caregivers with a word starting with the query word, scored by their best such word
+     */
+    private Map<Integer, Double> match(String word) {
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Integer, Integer>> entry
+                : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            double factor = entry.getKey().equals(word) ? 1.0 : 0.5;
+            entry.getValue().forEach((caregiverId, bits) -> scores.merge(caregiverId, factor * weight(bits), Math::max));
+        }
+        return scores;
+    }
+
+    private static double weight(int bits) {
+        return ((bits & SPECIALTIES) != 0 ? 3 : 0) + ((bits & QUALIFICATIONS) != 0 ? 2 : 0) + ((bits & BIO) != 0 ? 1 : 0);
+    }
+
+    /**
+     * Caregivers in both, with the scores added up; a null left side means no words matched yet
+     */
+    private static Map<Integer, Double> intersect(Map<Integer, Double> scores, Map<Integer, Double> word) {
+        if (scores == null) {
+            return word;
+        }
+        Map<Integer, Double> both = new HashMap<>();
+        Map<Integer, Double> smaller = scores.size() <= word.size() ? scores : word;
+        Map<Integer, Double> larger = smaller == scores ? word : scores;
+        smaller.forEach((caregiverId, score) -> {
+            Double other = larger.get(caregiverId);
+            if (other != null) both.put(caregiverId, score + other);
+        });
+        return both;
+    }
+
+    private Map<Integer, Double> unscored() {
+        Map<Integer, Double> all = new HashMap<>();
+        caregivers.keySet().forEach(caregiverId -> all.put(caregiverId, 0.0));
+        return all;
+    }
+
+    private static boolean matchesFilters(CaregiverListItem caregiver, Boolean available, Integer companyId,
+                                          BigDecimal minRating) {
+        if (available != null && available != Boolean.TRUE.equals(caregiver.isAvailable())) return false;
+        if (companyId != null && !companyId.equals(caregiver.companyId())) return false;
+        return minRating == null || (caregiver.rating() != null && caregiver.rating().compareTo(minRating) >= 0);
+    }
+
+    /**
+     * Lower-case words of a text, in order, with plural "s" removed
+     */
+    private static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            if (word.length() > 4 && word.endsWith("s") && !word.endsWith("ss")) {
+                word = word.substring(0, word.length() - 1);
+            }
+            words.add(word);
+        }
+        return words;
+    }
+}
@@ -1,10 +1,21 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CaregiverDistance;
+import com.example.demo.dto.CaregiverListItem;
+import com.example.demo.dto.GeoPoint;
+import com.example.demo.dto.ScheduleCheck;
+import com.example.demo.model.Booking;
 import com.example.demo.model.Caregiver;
+import com.example.demo.repository.BookingRepository;
 import com.example.demo.repository.CaregiverRepository;
+import com.example.demo.service.ResourceVersions.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -13,27 +24,137 @@ public class CaregiverService {
     @Autowired
     private CaregiverRepository caregiverRepository;
 
-    public List<Caregiver> getAllCaregivers() {
-        return caregiverRepository.findAll();
+    @Autowired
+    private CaregiverScheduleIndex scheduleIndex;
+
+    @Autowired
+    private CaregiverMatchingService matchingService;
+
+    @Autowired
+    private CaregiverSearchIndex searchIndex;
+
+    @Autowired
+    private ResourceVersions versions;
+
+    @Autowired
+    private CaregiverLocator locator;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private Geocoder geocoder;
+
+    @Transactional(readOnly = true)
+    public List<CaregiverListItem> getAllCaregivers() {
+        return caregiverRepository.findAllListItems();
     }
 
-    public List<Caregiver> getAvailableCaregivers() {
-        return caregiverRepository.findByIsAvailableTrue();
+    @Transactional(readOnly = true)
+    public List<CaregiverListItem> getAvailableCaregivers() {
+        return caregiverRepository.findAvailableListItems();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Caregiver> getCaregiverById(Integer id) {
         return caregiverRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Caregiver> getCaregiverByUserId(Integer userId) {
         return caregiverRepository.findByUserId(userId);
     }
 
     public Caregiver saveCaregiver(Caregiver caregiver) {
-        return caregiverRepository.save(caregiver);
+        boolean created = caregiver.getCaregiverId() == null;
+        Caregiver saved = caregiverRepository.save(caregiver);
+        scheduleIndex.updateAvailability(saved.getCaregiverId(), saved.getAvailableHours());
+        matchingService.invalidate();
+        // the list item carries the user name, which the saved entity may not have loaded
+        caregiverRepository.findListItemById(saved.getCaregiverId()).ifPresent(searchIndex::put);
+        versions.changed(Resource.CAREGIVERS, created ? 1 : 0);
+        return saved;
     }
 
     public void deleteCaregiver(Integer id) {
         caregiverRepository.deleteById(id);
+        scheduleIndex.removeCaregiver(id);
+        matchingService.invalidate();
+        searchIndex.remove(id);
+        locator.remove(id);
+        versions.changed(Resource.CAREGIVERS, -1);
+    }
+
+    /**
+     * Caregivers matching every word of the query in their specialties, qualifications or bio, from the in-memory index
+     */
+    public List<CaregiverListItem> search(String query, Boolean available, Integer companyId, BigDecimal minRating,
+                                          Integer limit) {
+        return searchIndex.search(query, available, companyId, minRating, limit);
+    }
+
+    /**
+     * The k caregivers whose last known position is nearest to the point, nearest first;
+     * available filters on isAvailable unless null
+     */
+    public List<CaregiverDistance> nearest(GeoPoint point, Integer k, Boolean available) {
+        int max = k != null ? Math.max(1, Math.min(k, CaregiverLocator.MAX_K)) : CaregiverLocator.DEFAULT_K;
+        // the list items the filter accepted, so a caregiver deleted meanwhile is not looked up again
+        Map<Integer, CaregiverListItem> accepted = new HashMap<>();
+        return locator.nearest(point, max, caregiverId -> {
+                    CaregiverListItem caregiver = searchIndex.get(caregiverId);
+                    if (caregiver == null || (available != null && available != Boolean.TRUE.equals(caregiver.isAvailable()))) {
+                        return false;
+                    }
+                    accepted.put(caregiverId, caregiver);
+                    return true;
+                }).stream()
+                .map(neighbour -> {
+                    CaregiverListItem caregiver = accepted.get(neighbour.position().caregiverId());
+                    return new CaregiverDistance(caregiver.caregiverId(), caregiver.name(), caregiver.isAvailable(),
+                            caregiver.rating(), Math.round(neighbour.distanceMetres()) / 1000.0,
+                            neighbour.position().point(), neighbour.position().seenAt());
+                })
+                .toList();
+    }
+
+    /**
+     * The caregivers nearest to a booking's pickup point; empty if the booking does not exist
+     *
+     * @throws IllegalArgumentException if the pickup address has no coordinates and cannot be geocoded
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<CaregiverDistance>> nearestToBooking(Integer bookingId, Integer k, Boolean available) {
+        return bookingRepository.findById(bookingId).map(booking -> nearest(pickup(booking), k, available));
+    }
+
+    /**
+     * The position of a free-text address or location
+     *
+     * @throws IllegalArgumentException if it cannot be geocoded
+     */
+    public GeoPoint locate(String address) {
+        return geocoder.geocode(address)
+                .orElseThrow(() -> new IllegalArgumentException("Cannot locate '" + address + "'"));
+    }
+
+    private GeoPoint pickup(Booking booking) {
+        GeoPoint pickup = GeoPoint.of(booking.getPickupLat(), booking.getPickupLon());
+        return pickup != null ? pickup : locate(booking.getPickupAddress());
+    }
+
+    /**
+     * Parsed weekly availability; empty if the caregiver does not exist
+     */
+    public Optional<WeeklyAvailability> getAvailability(Integer id) {
+        return caregiverRepository.existsById(id) ? Optional.of(scheduleIndex.getAvailability(id)) : Optional.empty();
+    }
+
+    /**
+     * Overlapping bookings and available hours for assigning this caregiver to a booking;
+     * empty if the booking does not exist
+     */
+    public Optional<ScheduleCheck> checkSchedule(Integer id, Integer bookingId) {
+        return Optional.ofNullable(scheduleIndex.check(bookingId, id));
     }
 }
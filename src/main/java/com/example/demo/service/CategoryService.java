@@ -1,9 +1,14 @@
 package com.example.demo.service;
 
+import com.example.demo.config.CacheConfig;
 import com.example.demo.model.Category;
 import com.example.demo.repository.CategoryRepository;
+import com.example.demo.service.ResourceVersions.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,19 +18,37 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ServiceEntityService serviceEntityService;
+
+    @Autowired
+    private ResourceVersions versions;
+
+    @Cacheable(CacheConfig.CATEGORIES)
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        // through versions.read, so a lagging replica never refills the cache just evicted by a write
+        return List.copyOf(versions.read(categoryRepository::findAll, Resource.CATEGORIES));
     }
 
+    @Transactional(readOnly = true)
     public Optional<Category> getCategoryById(Integer id) {
         return categoryRepository.findById(id);
     }
 
+    @CacheEvict(value = CacheConfig.CATEGORIES, allEntries = true)
     public Category saveCategory(Category category) {
-        return categoryRepository.save(category);
+        boolean created = category.getCategoryId() == null;
+        Category saved = categoryRepository.save(category);
+        // Service list items embed the category name
+        serviceEntityService.evictServiceLists(saved.getCategoryId());
+        versions.changed(Resource.CATEGORIES, created ? 1 : 0);
+        return saved;
     }
 
+    @CacheEvict(value = CacheConfig.CATEGORIES, allEntries = true)
     public void deleteCategory(Integer id) {
         categoryRepository.deleteById(id);
+        serviceEntityService.evictServiceLists(id);
+        versions.changed(Resource.CATEGORIES, -1);
     }
 }
@@ -0,0 +1,113 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.GeoPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offline geocoder backed by a small gazetteer of Singapore places (geocoder.gazetteer, a CSV of
+ * name,lat,lon[,postal sectors]). An address resolves to, in order of preference:
+ * explicit "lat,lon" coordinates, the longest place name it contains (as whole words), or the
+ * postal district of a six-digit postal code. Lookups are a few hash probes per word of the address.
+ */
+@Component
+public class GazetteerGeocoder implements Geocoder {
+
+    private static final Logger log = LoggerFactory.getLogger(GazetteerGeocoder.class);
+
+    private static final Pattern POSTAL_CODE = Pattern.compile("(?<!\\d)(\\d{2})\\d{4}(?!\\d)");
+
+    // normalised place name ("women s and children s hospital") -> position
+    private final Map<String, GeoPoint> places = new HashMap<>();
+    // postal sector ("52") -> district position
+    private final Map<String, GeoPoint> sectors = new HashMap<>();
+    private int longestName = 1;
+
+    public GazetteerGeocoder(@Value("${geocoder.gazetteer:classpath:geo/gazetteer.csv}") Resource gazetteer) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(gazetteer.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                GeoPoint position = new GeoPoint(Double.parseDouble(columns[1].trim()), Double.parseDouble(columns[2].trim()));
+                String name = normalise(columns[0]);
+                places.put(name, position);
+                longestName = Math.max(longestName, name.split(" ").length);
+                if (columns.length > 3) {
+                    for (String sector : columns[3].trim().split("\\s+")) {
+                        sectors.put(sector, position);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read gazetteer " + gazetteer, e);
+        }
+        log.info("Gazetteer loaded: {} places, {} postal sectors", places.size(), sectors.size());
+    }
+
+    @Override
+    public Optional<GeoPoint> geocode(String address) {
+        if (address == null || address.isBlank()) {
+            return Optional.empty();
+        }
+        GeoPoint coordinates = GeoPoint.parse(address);
+        if (coordinates != null) {
+            return Optional.of(coordinates);
+        }
+        GeoPoint place = longestPlace(normalise(address).split(" "));
+        if (place != null) {
+            return Optional.of(place);
+        }
+        Matcher postalCode = POSTAL_CODE.matcher(address);
+        while (postalCode.find()) {
+            GeoPoint district = sectors.get(postalCode.group(1));
+            if (district != null) {
+                return Optional.of(district);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The place with the most words among the word runs of the address, the first one on a tie
+     */
+    private GeoPoint longestPlace(String[] address) {
+        List<String> words = Arrays.asList(address);
+        for (int length = Math.min(longestName, words.size()); length > 0; length--) {
+            for (int start = 0; start + length <= words.size(); start++) {
+                GeoPoint place = places.get(String.join(" ", words.subList(start, start + length)));
+                if (place != null) {
+                    return place;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lower-case words separated by single spaces
+     */
+    private static String normalise(String text) {
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.GeoPoint;
+
+import java.util.Optional;
+
+/**
+ * Resolves free-text addresses and locations to coordinates. GazetteerGeocoder, offline, is the
+ * default; declare a @Primary Geocoder bean to use a geocoding service instead. Bookings are
+ * geocoded while they are written, so an implementation should answer quickly or cache.
+ */
+public interface Geocoder {
+
+    /**
+     * The position of the address, or empty if it cannot be placed
+     */
+    Optional<GeoPoint> geocode(String address);
+}
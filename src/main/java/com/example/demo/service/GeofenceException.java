@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+/**
+ * Thrown when a clock-in or clock-out is made too far from the booking's pickup or destination
+ * while geofence.enforce is on. Mapped to HTTP 422.
+ */
+public class GeofenceException extends RuntimeException {
+
+    public GeofenceException(String message) {
+        super(message);
+    }
+}
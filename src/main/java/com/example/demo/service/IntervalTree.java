@@ -0,0 +1,194 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Half-open intervals [start, end) keyed by an integer ID, in an AVL tree ordered by
+ * (start, id) where every node also records the largest end in its subtree.
+ *
+ * Insert and remove are O(log n); finding the intervals that overlap a window is
+ * O(log n + k) because subtrees whose largest end is before the window are skipped.
+ * Not thread-safe.
+ */
+class IntervalTree {
+
+    private static final class Node {
+        final int id;
+        final long start;
+        final long end;
+        long maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(int id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+
+    // id -> start, so an interval can be found again for removal
+    private final Map<Integer, Long> starts = new HashMap<>();
+
+    public int size() {
+        return starts.size();
+    }
+
+    public boolean contains(int id) {
+        return starts.containsKey(id);
+    }
+
+    /**
+     * Add or replace the interval with this ID
+     */
+    public void put(int id, long start, long end) {
+        remove(id);
+        root = insert(root, new Node(id, start, end));
+        starts.put(id, start);
+    }
+
+    public void remove(int id) {
+        Long start = starts.remove(id);
+        if (start != null) {
+            root = delete(root, start, id);
+        }
+    }
+
+    /**
+     * IDs of the intervals overlapping [start, end), in start order
+     */
+    public List<Integer> overlapping(long start, long end) {
+        List<Integer> ids = new ArrayList<>();
+        collect(root, start, end, ids);
+        return ids;
+    }
+
+    /**
+     * Whether any interval overlaps [start, end); O(log n)
+     */
+    public boolean overlapsAny(long start, long end) {
+        Node node = root;
+        while (node != null && node.maxEnd > start) {
+            if (node.left != null && node.left.maxEnd > start) {
+                node = node.left; // the leftmost candidate is the earliest-starting one, so search there first
+            } else if (node.start < end && node.end > start) {
+                return true;
+            } else if (node.start >= end) {
+                return false;
+            } else {
+                node = node.right;
+            }
+        }
+        return false;
+    }
+
+    private static void collect(Node node, long start, long end, List<Integer> ids) {
+        if (node == null || node.maxEnd <= start) {
+            return; // nothing in this subtree ends after the window starts
+        }
+        collect(node.left, start, end, ids);
+        if (node.start >= end) {
+            return; // this node and its right subtree start after the window
+        }
+        if (node.end > start) {
+            ids.add(node.id);
+        }
+        collect(node.right, start, end, ids);
+    }
+
+    private static int compare(long start, int id, Node node) {
+        int byStart = Long.compare(start, node.start);
+        return byStart != 0 ? byStart : Integer.compare(id, node.id);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private static Node delete(Node node, long start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node replacement = new Node(successor.id, successor.start, successor.end);
+            replacement.right = delete(node.right, successor.start, successor.id);
+            replacement.left = node.left;
+            node = replacement;
+        }
+        return balance(node);
+    }
+
+    private static int height(Node node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        if (node.right != null) maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ReadYourWrites;
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.projection.TableVersion;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.CaregiverRepository;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.ServiceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Version stamps for the list endpoints, so a GET with a current If-None-Match is answered
+ * with 304 before any query runs or any JSON is written.
+ *
+ * A resource's stamp is its row count and last modification time. It is read from the table
+ * (created_at, and updated_at for bookings) on first use, timed no earlier than that moment, and
+ * then kept in memory: the services bump it after every write they make, bookings after each
+ * change commits. Catalog tables have no updated_at, so changes made by another instance are only
+ * seen by the periodic check against the table when they add or remove rows; like the catalog
+ * caches, the stamps are per instance.
+ *
+ * Reads made through read() go to the primary only while a resource's stamp is younger than
+ * replica.read-your-writes-ms, the lag a replica is allowed; after that the replica has its rows.
+ */
+@Component
+@Lazy(false)
+public class ResourceVersions {
+
+    public enum Resource { SERVICES, CATEGORIES, CAREGIVERS, BOOKINGS }
+
+    /**
+     * Row count and last change in microseconds since the epoch; observed is the table's own
+     * (count, latest timestamp) when last read, to notice changes made elsewhere
+     */
+    private record Stamp(long rowCount, long modifiedMicros, TableVersion observed) {
+    }
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CaregiverRepository caregiverRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Value("${replica.read-your-writes-ms:5000}")
+    private long replicaLagMs;
+
+    private final Map<Resource, Stamp> stamps = new ConcurrentHashMap<>();
+
+    /**
+     * Strong ETag covering the given resources, e.g. services together with the categories their items embed
+     */
+    public String etag(Resource... resources) {
+        StringBuilder etag = new StringBuilder("\"");
+        for (Resource resource : resources) {
+            Stamp stamp = stamps.computeIfAbsent(resource, r -> load(r, null));
+            if (etag.length() > 1) {
+                etag.append('-');
+            }
+            etag.append(Character.toLowerCase(resource.name().charAt(0)))
+                    .append(Long.toString(stamp.rowCount(), 36)).append('.')
+                    .append(Long.toString(stamp.modifiedMicros(), 36));
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Run a read of the given resources on the primary if any of them changed within the replica lag,
+     * otherwise where the transaction would normally go; either way the rows are no older than the stamps
+     */
+    public <T> T read(Supplier<T> query, Resource... resources) {
+        long laggingFrom = micros(LocalDateTime.now()) - replicaLagMs * 1000;
+        for (Resource resource : resources) {
+            if (stamps.computeIfAbsent(resource, r -> load(r, null)).modifiedMicros() > laggingFrom) {
+                return ReadYourWrites.onPrimary(query);
+            }
+        }
+        return query.get();
+    }
+
+    /**
+     * Record a committed write; rowDelta is 1 for an insert, -1 for a delete and 0 for an update
+     */
+    public void changed(Resource resource, int rowDelta) {
+        stamps.computeIfPresent(resource, (r, stamp) ->
+                new Stamp(stamp.rowCount() + rowDelta, after(stamp.modifiedMicros()), stamp.observed()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingChanged(BookingChangedEvent event) {
+        changed(Resource.BOOKINGS, event.before() == null ? 1 : event.after() == null ? -1 : 0);
+    }
+
+    /**
+     * Compare each stamp with its table, and take a new one where the table changed since it was last read
+     */
+    @Scheduled(fixedDelayString = "${etag.reconcile-interval-ms:60000}",
+               initialDelayString = "${etag.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        for (Resource resource : Resource.values()) {
+            Stamp current = stamps.get(resource);
+            if (current != null) {
+                Stamp fromDatabase = load(resource, current);
+                stamps.computeIfPresent(resource, (r, stamp) -> stamp == current ? fromDatabase : stamp);
+            }
+        }
+    }
+
+    private Stamp load(Resource resource, Stamp previous) {
+        Supplier<TableVersion> query = switch (resource) {
+            case SERVICES -> serviceRepository::findTableVersion;
+            case CATEGORIES -> categoryRepository::findTableVersion;
+            case CAREGIVERS -> caregiverRepository::findTableVersion;
+            case BOOKINGS -> bookingRepository::findTableVersion;
+        };
+        // from the primary, so a lagging replica never hands out a stamp older than a write just made
+        TableVersion observed = ReadYourWrites.onPrimary(query);
+        long rowCount = observed.getRowCount() != null ? observed.getRowCount() : 0;
+        long tableMicros = observed.getLastModified() != null ? micros(observed.getLastModified()) : 0;
+        if (previous == null) {
+            // not the table's own time: catalog updates leave no trace there, and a tag issued before a restart must not come back
+            return new Stamp(rowCount, after(tableMicros), observed);
+        }
+        if (rowCount == previous.observed().getRowCount()
+                && Objects.equals(observed.getLastModified(), previous.observed().getLastModified())) {
+            return previous;
+        }
+        return new Stamp(rowCount, Math.max(tableMicros, after(previous.modifiedMicros())), observed);
+    }
+
+    /**
+     * Now, or just after the previous stamp if the clock has not moved past it
+     */
+    private static long after(long previousMicros) {
+        return Math.max(micros(LocalDateTime.now()), previousMicros + 1);
+    }
+
+    // same clock as the entities' created_at and updated_at
+    private static long micros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), time);
+    }
+}
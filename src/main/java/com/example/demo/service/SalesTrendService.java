@@ -0,0 +1,195 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SalesTrendPoint;
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingSnapshot;
+import com.example.demo.projection.SalesBucketAggregate;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.service.ResourceVersions.Resource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-bucketed completed sales, aggregated in the database with date_trunc.
+ *
+ * Buckets that ended before the current one are closed: they are cached and only
+ * re-read when a booking dated inside them changes. The current and future buckets
+ * are always read from the database. The cache is bounded by sales-trend.cache-spec
+ * (a Caffeine spec), so requests for arbitrary historical ranges cannot grow it without limit.
+ */
+@Service
+public class SalesTrendService {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Singapore");
+
+    private static final int MAX_BUCKETS = 5000;
+
+    public enum Granularity {
+        DAY("day", ChronoUnit.DAYS),
+        WEEK("week", ChronoUnit.WEEKS),
+        MONTH("month", ChronoUnit.MONTHS),
+        YEAR("year", ChronoUnit.YEARS);
+
+        private final String sqlUnit;
+        private final ChronoUnit unit;
+
+        Granularity(String sqlUnit, ChronoUnit unit) {
+            this.sqlUnit = sqlUnit;
+            this.unit = unit;
+        }
+
+        /**
+         * First day of the bucket containing the date (weeks start on Monday, as in PostgreSQL)
+         */
+        public LocalDate truncate(LocalDate date) {
+            switch (this) {
+                case WEEK:  return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH: return date.withDayOfMonth(1);
+                case YEAR:  return date.withDayOfYear(1);
+                default:    return date;
+            }
+        }
+
+        public LocalDate next(LocalDate bucketStart) {
+            return bucketStart.plus(1, unit);
+        }
+
+        public LocalDate minus(LocalDate bucketStart, long buckets) {
+            return bucketStart.minus(buckets, unit);
+        }
+    }
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ResourceVersions versions;
+
+    /**
+     * A closed bucket of one granularity
+     */
+    private record BucketKey(Granularity granularity, LocalDate bucket) {
+    }
+
+    private final Cache<BucketKey, SalesTrendPoint> closedBuckets;
+
+    // Bumped on every eviction so a load that raced with a commit is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public SalesTrendService(@Value("${sales-trend.cache-spec:maximumSize=20000,expireAfterWrite=1h}") String cacheSpec) {
+        closedBuckets = Caffeine.from(cacheSpec).build();
+    }
+
+    /**
+     * Ordered series of every bucket overlapping [from, to]; empty buckets are reported as zero.
+     * The range is widened to whole buckets so that every point covers a full period.
+     */
+    public List<SalesTrendPoint> getTrend(Granularity granularity, LocalDate from, LocalDate to) {
+        LocalDate first = granularity.truncate(from);
+        LocalDate last = granularity.truncate(to);
+        if (last.isBefore(first)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (granularity.unit.between(first, last) >= MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range spans more than " + MAX_BUCKETS + " buckets");
+        }
+
+        LocalDate current = granularity.truncate(LocalDate.now(ZONE));
+
+        // Closed buckets missing from the cache are fetched in one query and cached
+        Map<LocalDate, SalesTrendPoint> fetched = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate bucket = first; !bucket.isAfter(last) && bucket.isBefore(current); bucket = granularity.next(bucket)) {
+            SalesTrendPoint cached = closedBuckets.getIfPresent(new BucketKey(granularity, bucket));
+            if (cached != null) {
+                fetched.put(bucket, cached);
+            } else {
+                if (firstMissing == null) firstMissing = bucket;
+                lastMissing = bucket;
+            }
+        }
+        if (firstMissing != null) {
+            long observed = generation.get();
+            // through versions.read: a lagging replica would cache a bucket from before the change that evicted it
+            LocalDate loadFrom = firstMissing;
+            LocalDate loadTo = granularity.next(lastMissing);
+            Map<LocalDate, SalesTrendPoint> loaded = versions.read(() -> load(granularity, loadFrom, loadTo), Resource.BOOKINGS);
+            fetched.putAll(loaded);
+            if (generation.get() == observed) {
+                loaded.forEach((bucket, point) -> closedBuckets.put(new BucketKey(granularity, bucket), point));
+            }
+        }
+
+        // Open buckets (current and later) are never cached
+        if (!last.isBefore(current)) {
+            LocalDate openFrom = first.isAfter(current) ? first : current;
+            // routed like the closed buckets, so the series never mixes a lagging replica with the primary
+            fetched.putAll(versions.read(() -> load(granularity, openFrom, granularity.next(last)), Resource.BOOKINGS));
+        }
+
+        List<SalesTrendPoint> series = new ArrayList<>();
+        for (LocalDate bucket = first; !bucket.isAfter(last); bucket = granularity.next(bucket)) {
+            SalesTrendPoint point = fetched.get(bucket);
+            series.add(point != null ? point : new SalesTrendPoint(bucket, 0.0, 0L));
+        }
+        return series;
+    }
+
+    /**
+     * Drop cached buckets containing the old or new date of a booking whose completed sales changed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingChanged(BookingChangedEvent event) {
+        evict(event.before());
+        evict(event.after());
+    }
+
+    public void clearCache() {
+        generation.incrementAndGet();
+        closedBuckets.invalidateAll();
+    }
+
+    private void evict(BookingSnapshot booking) {
+        if (booking == null || booking.bookingDate() == null || !booking.isCompleted()) {
+            return;
+        }
+        generation.incrementAndGet();
+        for (Granularity granularity : Granularity.values()) {
+            closedBuckets.invalidate(new BucketKey(granularity, granularity.truncate(booking.bookingDate())));
+        }
+    }
+
+    /**
+     * Every bucket in [fromBucket, toExclusive), zero-filled
+     */
+    private Map<LocalDate, SalesTrendPoint> load(Granularity granularity, LocalDate fromBucket, LocalDate toExclusive) {
+        Map<LocalDate, SalesTrendPoint> points = new HashMap<>();
+        for (LocalDate bucket = fromBucket; bucket.isBefore(toExclusive); bucket = granularity.next(bucket)) {
+            points.put(bucket, new SalesTrendPoint(bucket, 0.0, 0L));
+        }
+        for (SalesBucketAggregate row : bookingRepository.aggregateCompletedSalesByBucket(granularity.sqlUnit, fromBucket, toExclusive)) {
+            points.put(row.getBucket(), new SalesTrendPoint(
+                    row.getBucket(),
+                    row.getSales() != null ? row.getSales() : 0.0,
+                    row.getBookings() != null ? row.getBookings() : 0L));
+        }
+        return points;
+    }
+}
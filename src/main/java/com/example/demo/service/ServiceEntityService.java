@@ -1,8 +1,15 @@
 package com.example.demo.service;
 
+import com.example.demo.config.CacheConfig;
+import com.example.demo.dto.ServiceListItem;
 import com.example.demo.model.Service;
 import com.example.demo.repository.ServiceRepository;
+import com.example.demo.service.ResourceVersions.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,27 +19,68 @@ public class ServiceEntityService {
     @Autowired
     private ServiceRepository serviceRepository;
 
-    public List<com.example.demo.model.Service> getAllServices() {
-        return serviceRepository.findAll();
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ResourceVersions versions;
+
+    // Cached lists are read through versions.read, so a lagging replica never refills a cache just evicted by a write
+    @Cacheable(CacheConfig.ALL_SERVICES)
+    public List<ServiceListItem> getAllServices() {
+        return List.copyOf(versions.read(serviceRepository::findAllListItems, Resource.SERVICES, Resource.CATEGORIES));
     }
 
-    public List<com.example.demo.model.Service> getActiveServices() {
-        return serviceRepository.findByIsActiveTrue();
+    @Cacheable(CacheConfig.ACTIVE_SERVICES)
+    public List<ServiceListItem> getActiveServices() {
+        return List.copyOf(versions.read(serviceRepository::findActiveListItems, Resource.SERVICES, Resource.CATEGORIES));
     }
 
-    public List<com.example.demo.model.Service> getServicesByCategory(Integer categoryId) {
-        return serviceRepository.findByCategoryId(categoryId);
+    @Cacheable(value = CacheConfig.SERVICES_BY_CATEGORY, key = "#categoryId")
+    public List<ServiceListItem> getServicesByCategory(Integer categoryId) {
+        return List.copyOf(versions.read(() -> serviceRepository.findListItemsByCategoryId(categoryId),
+                Resource.SERVICES, Resource.CATEGORIES));
     }
 
-    public Optional<com.example.demo.model.Service> getServiceById(Integer id) {
+    @Transactional(readOnly = true)
+    public Optional<Service> getServiceById(Integer id) {
         return serviceRepository.findById(id);
     }
 
-    public com.example.demo.model.Service saveService(com.example.demo.model.Service service) {
-        return serviceRepository.save(service);
+    public Service saveService(Service service) {
+        // An update may move the service out of its previous category
+        Integer previousCategoryId = service.getServiceId() != null
+                ? serviceRepository.findById(service.getServiceId()).map(Service::getCategoryId).orElse(null)
+                : null;
+        boolean created = service.getServiceId() == null;
+        Service saved = serviceRepository.save(service);
+        evictServiceLists(previousCategoryId, saved.getCategoryId());
+        versions.changed(Resource.SERVICES, created ? 1 : 0);
+        return saved;
     }
 
     public void deleteService(Integer id) {
+        Integer categoryId = serviceRepository.findById(id).map(Service::getCategoryId).orElse(null);
         serviceRepository.deleteById(id);
+        evictServiceLists(categoryId);
+        versions.changed(Resource.SERVICES, -1);
+    }
+
+    /**
+     * Drop the cached lists that can contain services of the given categories
+     */
+    public void evictServiceLists(Integer... categoryIds) {
+        cache(CacheConfig.ALL_SERVICES).clear();
+        cache(CacheConfig.ACTIVE_SERVICES).clear();
+        Cache byCategory = cache(CacheConfig.SERVICES_BY_CATEGORY);
+        for (Integer categoryId : categoryIds) {
+            if (categoryId != null) {
+                byCategory.evict(categoryId);
+            }
+        }
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
     }
 }
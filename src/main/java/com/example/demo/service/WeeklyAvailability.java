@@ -0,0 +1,266 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A caregiver's weekly availability, parsed from the free-text Caregiver.availableHours.
+ *
+ * Understands day names and ranges ("Mon-Fri", "Tuesday", "weekdays", "weekends", "daily"),
+ * time ranges ("09:00-17:00", "9am - 5:30pm", "9-5", "22:00-06:00" across midnight), "off"
+ * after a day, and "24/7". Days listed without times are available all day, and times
+ * listed without days apply to every day. Blank or unrecognisable text is not restricted:
+ * every time counts as available, and parsed is false so the text can be flagged for cleanup.
+ */
+public record WeeklyAvailability(boolean restricted, boolean parsed, Map<DayOfWeek, List<TimeSlot>> slots) {
+
+    private static final int DAY_MINUTES = 24 * 60;
+
+    public static final WeeklyAvailability UNRESTRICTED = new WeeklyAvailability(false, true, Map.of());
+
+    /**
+     * [startMinute, endMinute) within one day; endMinute 1440 is midnight at the end of the day
+     */
+    public record TimeSlot(int startMinute, int endMinute) {
+
+        boolean contains(int from, int to) {
+            return startMinute <= from && to <= endMinute;
+        }
+
+        @JsonValue
+        @Override
+        public String toString() {
+            return String.format("%02d:%02d-%02d:%02d", startMinute / 60, startMinute % 60, endMinute / 60, endMinute % 60);
+        }
+    }
+
+    private static final String DAY = "mon(?:day)?|tue(?:s(?:day)?)?|wed(?:nesday)?|thu(?:r(?:s(?:day)?)?)?|fri(?:day)?|sat(?:urday)?|sun(?:day)?";
+    private static final String TIME = "\\d{1,2}(?::?\\d{2})?\\s*(?:am|pm|a\\.m\\.|p\\.m\\.)?|noon|midnight";
+    private static final Pattern TOKENS = Pattern.compile(
+            "\\b(?<allWeek>24\\s*/\\s*7|24\\s*x\\s*7|24\\s*hours|any\\s*time)" +
+            "|\\b(?<dayFrom>" + DAY + ")\\.?\\s*-\\s*(?<dayTo>" + DAY + ")\\b" +
+            "|\\b(?<day>" + DAY + "|weekdays?|weekends?|daily|every\\s*day)\\b" +
+            "|\\b(?<off>off|closed|unavailable)\\b" +
+            "|(?<timeFrom>" + TIME + ")\\s*-\\s*(?<timeTo>" + TIME + ")");
+    private static final Pattern TIME_PARTS = Pattern.compile("(\\d{1,2})(?::?(\\d{2}))?\\s*(am|pm|a\\.m\\.|p\\.m\\.)?");
+
+    public static WeeklyAvailability parse(String text) {
+        if (text == null || text.isBlank()) {
+            return UNRESTRICTED;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT)
+                .replace('–', '-').replace('—', '-')
+                .replaceAll("\\s+(?:to|until|till)\\s+", " - ");
+
+        Map<DayOfWeek, List<TimeSlot>> slots = new EnumMap<>(DayOfWeek.class);
+        Set<DayOfWeek> group = EnumSet.noneOf(DayOfWeek.class);
+        boolean groupHasTimes = false;
+        boolean matchedAnything = false;
+
+        Matcher m = TOKENS.matcher(normalized);
+        while (m.find()) {
+            if (m.group("allWeek") != null) {
+                return new WeeklyAvailability(true, true, allWeek());
+            }
+            Set<DayOfWeek> days = null;
+            if (m.group("dayFrom") != null) {
+                days = dayRange(day(m.group("dayFrom")), day(m.group("dayTo")));
+            } else if (m.group("day") != null) {
+                days = days(m.group("day"));
+            }
+            if (days != null) {
+                if (groupHasTimes) {
+                    // days after times start the next group, e.g. "Mon-Fri 9-5, Sat 10-2"
+                    group = EnumSet.noneOf(DayOfWeek.class);
+                    groupHasTimes = false;
+                }
+                group.addAll(days);
+                matchedAnything = true;
+            } else if (m.group("off") != null) {
+                if (!group.isEmpty()) {
+                    group.forEach(day -> slots.computeIfAbsent(day, d -> new ArrayList<>()));
+                    groupHasTimes = true;
+                    matchedAnything = true;
+                }
+            } else {
+                int[] range = timeRange(m.group("timeFrom"), m.group("timeTo"));
+                if (range == null) {
+                    continue;
+                }
+                Set<DayOfWeek> target = group.isEmpty() ? EnumSet.allOf(DayOfWeek.class) : group;
+                for (DayOfWeek day : target) {
+                    addRange(slots, day, range[0], range[1]);
+                }
+                groupHasTimes = true;
+                matchedAnything = true;
+            }
+        }
+        if (!matchedAnything) {
+            return new WeeklyAvailability(false, false, Map.of());
+        }
+        closeGroup(group, groupHasTimes, slots);
+
+        Map<DayOfWeek, List<TimeSlot>> merged = new EnumMap<>(DayOfWeek.class);
+        slots.forEach((day, daySlots) -> merged.put(day, merge(daySlots)));
+        return new WeeklyAvailability(true, true, Collections.unmodifiableMap(merged));
+    }
+
+    /**
+     * Whether [start, end) falls entirely inside the available hours. A window that crosses
+     * midnight must be covered on both days.
+     */
+    public boolean covers(LocalDateTime start, LocalDateTime end) {
+        if (!restricted) {
+            return true;
+        }
+        LocalDateTime cursor = start;
+        while (cursor.isBefore(end)) {
+            LocalDate date = cursor.toLocalDate();
+            LocalDateTime nextMidnight = date.plusDays(1).atStartOfDay();
+            LocalDateTime segmentEnd = end.isBefore(nextMidnight) ? end : nextMidnight;
+            int from = cursor.getHour() * 60 + cursor.getMinute();
+            int to = segmentEnd.equals(nextMidnight) ? DAY_MINUTES : segmentEnd.getHour() * 60 + segmentEnd.getMinute();
+            List<TimeSlot> daySlots = slots.getOrDefault(date.getDayOfWeek(), List.of());
+            if (daySlots.stream().noneMatch(slot -> slot.contains(from, to))) {
+                return false;
+            }
+            cursor = segmentEnd;
+        }
+        return true;
+    }
+
+    private static void closeGroup(Set<DayOfWeek> group, boolean hasTimes, Map<DayOfWeek, List<TimeSlot>> slots) {
+        if (!hasTimes) {
+            group.forEach(day -> addRange(slots, day, 0, DAY_MINUTES));
+        }
+    }
+
+    private static void addRange(Map<DayOfWeek, List<TimeSlot>> slots, DayOfWeek day, int start, int end) {
+        if (start < end) {
+            slots.computeIfAbsent(day, d -> new ArrayList<>()).add(new TimeSlot(start, end));
+        } else {
+            // overnight, e.g. 22:00-06:00: the rest of this day and the start of the next
+            slots.computeIfAbsent(day, d -> new ArrayList<>()).add(new TimeSlot(start, DAY_MINUTES));
+            if (end > 0) {
+                slots.computeIfAbsent(day.plus(1), d -> new ArrayList<>()).add(new TimeSlot(0, end));
+            }
+        }
+    }
+
+    private static List<TimeSlot> merge(List<TimeSlot> daySlots) {
+        List<TimeSlot> sorted = new ArrayList<>(daySlots);
+        sorted.sort(Comparator.comparingInt(TimeSlot::startMinute));
+        List<TimeSlot> merged = new ArrayList<>();
+        for (TimeSlot slot : sorted) {
+            TimeSlot last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && slot.startMinute() <= last.endMinute()) {
+                merged.set(merged.size() - 1, new TimeSlot(last.startMinute(), Math.max(last.endMinute(), slot.endMinute())));
+            } else {
+                merged.add(slot);
+            }
+        }
+        return List.copyOf(merged);
+    }
+
+    private static Map<DayOfWeek, List<TimeSlot>> allWeek() {
+        Map<DayOfWeek, List<TimeSlot>> slots = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            slots.put(day, List.of(new TimeSlot(0, DAY_MINUTES)));
+        }
+        return Collections.unmodifiableMap(slots);
+    }
+
+    private static Set<DayOfWeek> days(String token) {
+        if (token.startsWith("weekday")) return EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+        if (token.startsWith("weekend")) return EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+        if (token.equals("daily") || token.startsWith("every")) return EnumSet.allOf(DayOfWeek.class);
+        return EnumSet.of(day(token));
+    }
+
+    private static DayOfWeek day(String token) {
+        return switch (token.substring(0, 3)) {
+            case "mon" -> DayOfWeek.MONDAY;
+            case "tue" -> DayOfWeek.TUESDAY;
+            case "wed" -> DayOfWeek.WEDNESDAY;
+            case "thu" -> DayOfWeek.THURSDAY;
+            case "fri" -> DayOfWeek.FRIDAY;
+            case "sat" -> DayOfWeek.SATURDAY;
+            default -> DayOfWeek.SUNDAY;
+        };
+    }
+
+    /**
+     * from..to inclusive, wrapping past Sunday (e.g. Fri-Mon)
+     */
+    private static Set<DayOfWeek> dayRange(DayOfWeek from, DayOfWeek to) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        DayOfWeek day = from;
+        days.add(day);
+        while (day != to) {
+            day = day.plus(1);
+            days.add(day);
+        }
+        return days;
+    }
+
+    /**
+     * Start and end in minutes of the day, or null if either time is invalid. Without am/pm,
+     * "9-5" is read as 9:00-17:00 and "1-5pm" as 13:00-17:00; an end of midnight is 1440.
+     */
+    private static int[] timeRange(String fromText, String toText) {
+        Time from = time(fromText);
+        Time to = time(toText);
+        if (from == null || to == null) {
+            return null;
+        }
+        int start = from.minutes();
+        int end = to.minutes();
+        if (!from.hasMeridiem() && !to.hasMeridiem() && end <= start && end < 12 * 60 && end + 12 * 60 > start) {
+            end += 12 * 60;
+        } else if (!from.hasMeridiem() && to.hasMeridiem() && start < 12 * 60 && start + 12 * 60 < end) {
+            start += 12 * 60;
+        }
+        if (end == 0 && start > 0) {
+            end = DAY_MINUTES;
+        }
+        return new int[] { start, end };
+    }
+
+    private record Time(int minutes, boolean hasMeridiem) {
+    }
+
+    private static Time time(String text) {
+        String value = text.trim();
+        if (value.equals("noon")) return new Time(12 * 60, true);
+        if (value.equals("midnight")) return new Time(0, true);
+        Matcher m = TIME_PARTS.matcher(value);
+        if (!m.matches()) {
+            return null;
+        }
+        int hour = Integer.parseInt(m.group(1));
+        int minute = m.group(2) != null ? Integer.parseInt(m.group(2)) : 0;
+        String meridiem = m.group(3);
+        if (meridiem != null) {
+            if (hour < 1 || hour > 12) return null;
+            hour = hour % 12 + (meridiem.startsWith("p") ? 12 : 0);
+        }
+        if (hour > 24 || minute > 59 || (hour == 24 && minute > 0)) {
+            return null;
+        }
+        return new Time(hour == 24 ? DAY_MINUTES : hour * 60 + minute, meridiem != null);
+    }
+}
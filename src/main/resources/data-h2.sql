@@ -0,0 +1,21 @@
+-- Sample data for the "local" profile (in-memory H2)
+insert into app_user(user_id, name) values (1, 'Alice Tan'), (2, 'Ben Lim'), (3, 'Cara Ng');
+
+insert into service_category(category_name, description) values
+    ('Transport', 'Escort to and from appointments'),
+    ('Home Care', 'Care at the client''s home');
+
+insert into service(service_name, description, base_price, duration_minutes, category_id, is_active) values
+    ('Clinic Escort', 'Escort to a clinic appointment and back', 40, 120, 1, true),
+    ('Dementia Home Care', 'Daily support at home', 60, 240, 2, true);
+
+insert into caregiver(user_id, name, phone, available, specialties, qualifications, bio, experience, rating, company_id) values
+    (2, 'Ben Lim', '91234567', true, 'dementia care, wheelchair transfer', 'RN', 'Experienced with elderly clients', 5, 4.5, 1),
+    (3, 'Cara Ng', '92223333', true, 'transport', 'First aid', 'Driver', 2, 3.9, 1);
+
+insert into booking(booking_id, user_id, service_id, booking_date, booking_time, status, caregiver_status, payment_status, total_price, version) values
+    (1, 1, 1, '2026-01-05', '10:00', 'Completed', 'Completed', 'Paid', 40, 0),
+    (2, 1, 2, '2026-02-07', '09:00', 'Confirmed', 'Pending', 'Unpaid', 60, 0),
+    (3, 2, 1, '2026-02-09', '14:30', 'Pending', 'Pending', 'Unpaid', 40, 0);
+
+alter sequence booking_seq restart with 1001;
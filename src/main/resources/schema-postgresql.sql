@@ -0,0 +1,5 @@
+-- Booking IDs are allocated from booking_seq in blocks of 50 (see Booking.bookingId).
+-- Databases created while booking_id was an identity column already hold IDs the sequence
+-- has not issued: move it past them. A no-op once the sequence is ahead.
+SELECT setval('booking_seq', (SELECT MAX(booking_id) FROM booking))
+WHERE (SELECT MAX(booking_id) FROM booking) > (SELECT last_value FROM booking_seq);
@@ -0,0 +1,46 @@
+package com.example.demo.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookingCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+        BookingCursor cursor = new BookingCursor(LocalDate.of(2026, 2, 9), LocalTime.of(14, 30), 3);
+
+        assertThat(BookingCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsSecondsAndTheStartCursor() {
+        BookingCursor cursor = new BookingCursor(LocalDate.of(2026, 12, 31), LocalTime.of(23, 59, 59, 500_000_000), Integer.MAX_VALUE);
+
+        assertThat(BookingCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(BookingCursor.decode(BookingCursor.START.encode())).isEqualTo(BookingCursor.START);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new BookingCursor(LocalDate.of(2026, 1, 5), LocalTime.of(10, 0), 1).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void blankTokenIsTheFirstPage() {
+        assertThat(BookingCursor.decode(null)).isEqualTo(BookingCursor.START);
+        assertThat(BookingCursor.decode(" ")).isEqualTo(BookingCursor.START);
+    }
+
+    @Test
+    void rejectsTokensItDidNotProduce() {
+        assertThatThrownBy(() -> BookingCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BookingCursor.decode("MjAyNi0wMS0wNQ")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
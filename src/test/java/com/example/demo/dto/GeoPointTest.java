@@ -0,0 +1,55 @@
+package com.example.demo.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class GeoPointTest {
+
+    private static final GeoPoint MARINA_BAY = new GeoPoint(1.2834, 103.8607);
+
+    @Test
+    void parsesLatLonText() {
+        assertThat(GeoPoint.parse("1.3521,103.8198")).isEqualTo(new GeoPoint(1.3521, 103.8198));
+        assertThat(GeoPoint.parse(" -33.86 , 151.21 ")).isEqualTo(new GeoPoint(-33.86, 151.21));
+        assertThat(GeoPoint.parse("91,0")).isNull();
+        assertThat(GeoPoint.parse("1,181")).isNull();
+        assertThat(GeoPoint.parse("12 Orchard Road")).isNull();
+        assertThat(GeoPoint.parse(null)).isNull();
+    }
+
+    @Test
+    void rejectsPositionsOffTheGlobe() {
+        assertThatThrownBy(() -> new GeoPoint(90.5, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new GeoPoint(0, Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ofNeedsBothCoordinates() {
+        assertThat(GeoPoint.of(1.3, null)).isNull();
+        assertThat(GeoPoint.of(null, 103.8)).isNull();
+        assertThat(GeoPoint.of(1.3, 103.8)).isEqualTo(new GeoPoint(1.3, 103.8));
+    }
+
+    @Test
+    void haversineMatchesKnownDistances() {
+        // one degree of latitude on the mean-radius sphere
+        assertThat(new GeoPoint(0, 0).distanceMetres(new GeoPoint(1, 0))).isCloseTo(111_195.1, within(1.0));
+        // Singapore to Sydney, about 6,300 km
+        assertThat(MARINA_BAY.distanceMetres(new GeoPoint(-33.8688, 151.2093))).isCloseTo(6_300_000, withinPercentage(1));
+        assertThat(MARINA_BAY.distanceMetres(MARINA_BAY)).isZero();
+    }
+
+    @Test
+    void approximationStaysWithinATenthOfAPercentNearby() {
+        for (double[] offset : new double[][] { { 0.0045, 0 }, { 0, 0.0045 }, { 0.003, 0.003 }, { 0.2, -0.3 } }) {
+            GeoPoint other = new GeoPoint(MARINA_BAY.lat() + offset[0], MARINA_BAY.lon() + offset[1]);
+
+            assertThat(MARINA_BAY.approxDistanceMetres(other))
+                    .isCloseTo(MARINA_BAY.distanceMetres(other), withinPercentage(0.1));
+        }
+    }
+}
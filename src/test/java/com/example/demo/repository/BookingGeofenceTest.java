@@ -0,0 +1,130 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.GeoPoint;
+import com.example.demo.model.Booking;
+import com.example.demo.projection.BookingTransition;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * The geofence distance computed in the clock UPDATE (the portable path on H2), checked against
+ * GeoPoint.approxDistanceMetres either side of the fence radius.
+ */
+@SpringBootTest
+@ActiveProfiles("local")
+@Transactional
+class BookingGeofenceTest {
+
+    private static final int BOOKING_ID = 3;
+    private static final double RADIUS = 500;
+    private static final GeoPoint PICKUP = new GeoPoint(1.3048, 103.8318);
+    private static final GeoPoint DESTINATION = new GeoPoint(1.3403, 103.9494);
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 2, 9, 14, 30);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setPickup() {
+        setCentres(PICKUP, null);
+    }
+
+    private void setCentres(GeoPoint pickup, GeoPoint destination) {
+        entityManager.createNativeQuery("UPDATE booking SET pickup_lat = :pickupLat, pickup_lon = :pickupLon, " +
+                        "destination_lat = :destinationLat, destination_lon = :destinationLon WHERE booking_id = :id")
+                .setParameter("pickupLat", pickup != null ? pickup.lat() : null)
+                .setParameter("pickupLon", pickup != null ? pickup.lon() : null)
+                .setParameter("destinationLat", destination != null ? destination.lat() : null)
+                .setParameter("destinationLon", destination != null ? destination.lon() : null)
+                .setParameter("id", BOOKING_ID)
+                .executeUpdate();
+    }
+
+    /**
+     * The point this many metres from the centre, along a bearing of north (0) or east (90)
+     */
+    private static GeoPoint away(GeoPoint centre, double metres, int bearing) {
+        double radians = metres / 6_371_008.8;
+        return bearing == 0
+                ? new GeoPoint(centre.lat() + Math.toDegrees(radians), centre.lon())
+                : new GeoPoint(centre.lat(), centre.lon() + Math.toDegrees(radians / Math.cos(Math.toRadians(centre.lat()))));
+    }
+
+    private Optional<Booking> clockIn(GeoPoint position, boolean rejectOutside) {
+        return bookingRepository.clockIn(BOOKING_ID, NOW, "test", position, RADIUS, rejectOutside, NOW)
+                .map(BookingTransition::booking);
+    }
+
+    @Test
+    void insideTheRadiusIsVerified() {
+        Booking booking = clockIn(away(PICKUP, RADIUS - 0.5, 0), false).orElseThrow();
+
+        assertThat(booking.getClockInGeofence()).isEqualTo("Verified");
+        assertThat(booking.getClockInDistanceMetres()).isBetween(499, 500);
+        assertThat(booking.getStatus()).isEqualTo("In-Progress");
+    }
+
+    @Test
+    void justOutsideTheRadiusIsOutside() {
+        Booking booking = clockIn(away(PICKUP, RADIUS + 0.5, 90), false).orElseThrow();
+
+        // the verdict uses the exact distance, the stored one is rounded
+        assertThat(booking.getClockInGeofence()).isEqualTo("Outside");
+        assertThat(booking.getClockInDistanceMetres()).isBetween(500, 501);
+    }
+
+    @Test
+    void storedDistanceMatchesGeoPoint() {
+        GeoPoint position = new GeoPoint(PICKUP.lat() + 0.01, PICKUP.lon() - 0.02);
+
+        Booking booking = clockIn(position, false).orElseThrow();
+
+        assertThat((double) booking.getClockInDistanceMetres()).isCloseTo(PICKUP.approxDistanceMetres(position), within(0.5));
+        assertThat((double) booking.getClockInDistanceMetres()).isCloseTo(PICKUP.distanceMetres(position), within(3.0));
+    }
+
+    @Test
+    void enforcedFenceRejectsOnlyOutside() {
+        assertThat(clockIn(away(PICKUP, RADIUS + 0.5, 0), true)).isEmpty();
+        assertThat(clockIn(away(PICKUP, RADIUS - 0.5, 90), true)).isPresent();
+    }
+
+    @Test
+    void missingPointsAreUnverified() {
+        assertThat(clockIn(null, true).orElseThrow().getClockInGeofence()).isEqualTo("Unverified");
+
+        setCentres(null, null);
+        entityManager.clear();
+        Booking booking = clockIn(away(PICKUP, 10_000, 0), true).orElseThrow();
+        assertThat(booking.getClockInGeofence()).isEqualTo("Unverified");
+        assertThat(booking.getClockInDistanceMetres()).isNull();
+    }
+
+    @Test
+    void clockOutIsCheckedAgainstTheDestination() {
+        setCentres(PICKUP, DESTINATION);
+
+        Booking booking = bookingRepository.clockOut(BOOKING_ID, NOW, "test", away(DESTINATION, RADIUS - 0.5, 0),
+                RADIUS, true, NOW).orElseThrow().booking();
+
+        assertThat(booking.getClockOutGeofence()).isEqualTo("Verified");
+        entityManager.clear();
+        assertThat(clockIn(away(DESTINATION, RADIUS - 0.5, 0), false).orElseThrow().getClockInGeofence())
+                .isEqualTo("Outside");
+    }
+}
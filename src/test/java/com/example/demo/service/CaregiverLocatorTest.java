@@ -0,0 +1,177 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.GeoPoint;
+import com.example.demo.event.CaregiverLocatedEvent;
+import com.example.demo.projection.ClockPosition;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.service.CaregiverLocator.Neighbour;
+import com.example.demo.service.ResourceVersions.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CaregiverLocatorTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 2, 12, 0);
+    private static final GeoPoint CENTRE = new GeoPoint(1.3000, 103.8000);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ResourceVersions versions;
+
+    @InjectMocks
+    private CaregiverLocator locator;
+
+    @BeforeEach
+    void readThrough() {
+        lenient().when(versions.read(any(), any(Resource[].class)))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
+    private record Row(Integer caregiverId, LocalDateTime clockIn, GeoPoint in, LocalDateTime clockOut, GeoPoint out)
+            implements ClockPosition {
+
+        static Row clockIn(int caregiverId, LocalDateTime at, GeoPoint position) {
+            return new Row(caregiverId, at, position, null, null);
+        }
+
+        public Integer getCaregiverId() { return caregiverId; }
+        public LocalDateTime getClockInTime() { return clockIn; }
+        public Double getClockInLat() { return in != null ? in.lat() : null; }
+        public Double getClockInLon() { return in != null ? in.lon() : null; }
+        public LocalDateTime getClockOutTime() { return clockOut; }
+        public Double getClockOutLat() { return out != null ? out.lat() : null; }
+        public Double getClockOutLon() { return out != null ? out.lon() : null; }
+    }
+
+    private void load(List<? extends ClockPosition> rows) {
+        when(bookingRepository.findClockPositionsSince(any())).thenReturn(List.copyOf(rows));
+        locator.rebuild();
+    }
+
+    private static GeoPoint north(GeoPoint point, double metres) {
+        return new GeoPoint(point.lat() + metres / 111_195.0, point.lon());
+    }
+
+    private List<Integer> nearest(GeoPoint point, int k) {
+        return locator.nearest(point, k, caregiverId -> true).stream()
+                .map(neighbour -> neighbour.position().caregiverId()).toList();
+    }
+
+    @Test
+    void nearestFirstUpToK() {
+        load(List.of(Row.clockIn(1, NOON, north(CENTRE, 3000)),
+                     Row.clockIn(2, NOON, north(CENTRE, 100)),
+                     Row.clockIn(3, NOON, north(CENTRE, 1500))));
+
+        assertThat(nearest(CENTRE, 5)).containsExactly(2, 3, 1);
+        assertThat(nearest(CENTRE, 2)).containsExactly(2, 3);
+        assertThat(locator.nearest(CENTRE, 1, caregiverId -> true).get(0).distanceMetres()).isCloseTo(100, within(1.0));
+    }
+
+    @Test
+    void filterSkipsCaregiversButStillFindsK() {
+        load(List.of(Row.clockIn(1, NOON, north(CENTRE, 100)),
+                     Row.clockIn(2, NOON, north(CENTRE, 200)),
+                     Row.clockIn(3, NOON, north(CENTRE, 50_000))));
+
+        assertThat(locator.nearest(CENTRE, 2, caregiverId -> caregiverId != 1))
+                .extracting(neighbour -> neighbour.position().caregiverId()).containsExactly(2, 3);
+    }
+
+    @Test
+    void latestClockEventIsThePosition() {
+        GeoPoint home = north(CENTRE, 5000);
+        load(List.of(new Row(1, NOON.minusHours(3), CENTRE, NOON, home),
+                     Row.clockIn(1, NOON.minusDays(1), north(CENTRE, 10)),
+                     new Row(2, NOON, north(CENTRE, 1000), null, north(CENTRE, 1))));
+
+        List<Neighbour> found = locator.nearest(CENTRE, 5, caregiverId -> true);
+
+        assertThat(found).extracting(neighbour -> neighbour.position().caregiverId()).containsExactly(2, 1);
+        assertThat(found.get(1).position().point()).isEqualTo(home);
+        assertThat(found.get(1).position().seenAt()).isEqualTo(NOON);
+    }
+
+    @Test
+    void followsNewerClockEventsOnly() {
+        load(List.of(Row.clockIn(1, NOON, north(CENTRE, 100))));
+
+        locator.onCaregiverLocated(new CaregiverLocatedEvent(1, north(CENTRE, 9000), NOON.minusMinutes(1)));
+        assertThat(locator.nearest(CENTRE, 1, id -> true).get(0).position().seenAt()).isEqualTo(NOON);
+
+        locator.onCaregiverLocated(new CaregiverLocatedEvent(1, north(CENTRE, 9000), NOON.plusHours(1)));
+        locator.onCaregiverLocated(new CaregiverLocatedEvent(2, north(CENTRE, 500), NOON));
+        assertThat(nearest(CENTRE, 5)).containsExactly(2, 1);
+    }
+
+    @Test
+    void removeForgetsThePosition() {
+        load(List.of(Row.clockIn(1, NOON, CENTRE), Row.clockIn(2, NOON, north(CENTRE, 100))));
+
+        locator.remove(1);
+
+        assertThat(nearest(CENTRE, 5)).containsExactly(2);
+    }
+
+    @Test
+    void changesDuringARebuildAreKept() {
+        when(bookingRepository.findClockPositionsSince(any())).thenAnswer(invocation -> {
+            locator.onCaregiverLocated(new CaregiverLocatedEvent(2, north(CENTRE, 100), NOON));
+            locator.remove(1);
+            return List.of(Row.clockIn(1, NOON, CENTRE));
+        });
+
+        locator.rebuild();
+
+        assertThat(nearest(CENTRE, 5)).containsExactly(2);
+    }
+
+    @Test
+    void matchesABruteForceScan() {
+        Random random = new Random(7);
+        List<Row> rows = new ArrayList<>();
+        for (int id = 1; id <= 400; id++) {
+            // most within a few kilometres, some scattered up to hundreds of kilometres away
+            double spread = id % 10 == 0 ? 3.0 : 0.05;
+            rows.add(Row.clockIn(id, NOON, new GeoPoint(CENTRE.lat() + (random.nextDouble() - 0.5) * spread,
+                    CENTRE.lon() + (random.nextDouble() - 0.5) * spread)));
+        }
+        load(rows);
+
+        for (int query = 0; query < 200; query++) {
+            double spread = query % 4 == 0 ? 6.0 : 0.1;
+            GeoPoint point = new GeoPoint(CENTRE.lat() + (random.nextDouble() - 0.5) * spread,
+                    CENTRE.lon() + (random.nextDouble() - 0.5) * spread);
+            int k = 1 + random.nextInt(20);
+            List<Integer> expected = rows.stream()
+                    .filter(row -> row.caregiverId() % 3 != 0)
+                    .sorted(Comparator.comparingDouble(row -> point.distanceMetres(row.in())))
+                    .limit(k)
+                    .map(Row::caregiverId)
+                    .toList();
+
+            assertThat(locator.nearest(point, k, caregiverId -> caregiverId % 3 != 0))
+                    .extracting(neighbour -> neighbour.position().caregiverId()).isEqualTo(expected);
+        }
+    }
+}
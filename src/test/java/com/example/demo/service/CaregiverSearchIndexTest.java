@@ -0,0 +1,184 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CaregiverListItem;
+import com.example.demo.repository.CaregiverRepository;
+import com.example.demo.service.ResourceVersions.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CaregiverSearchIndexTest {
+
+    @Mock
+    private CaregiverRepository caregiverRepository;
+
+    @Mock
+    private ResourceVersions versions;
+
+    @InjectMocks
+    private CaregiverSearchIndex index;
+
+    @BeforeEach
+    void readThrough() {
+        lenient().when(versions.read(any(), any(Resource[].class)))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
+    private static CaregiverListItem caregiver(int id, String specialties, String qualifications, String bio,
+                                               String rating, boolean available, Integer companyId) {
+        return new CaregiverListItem(id, 100 + id, "User " + id, "Caregiver " + id, null, null, available,
+                qualifications, specialties, 5, bio, null, rating != null ? new BigDecimal(rating) : null,
+                null, companyId, null);
+    }
+
+    private static CaregiverListItem caregiver(int id, String specialties, String qualifications, String bio) {
+        return caregiver(id, specialties, qualifications, bio, "4.0", true, 1);
+    }
+
+    private void load(CaregiverListItem... caregivers) {
+        when(caregiverRepository.findAllListItems()).thenReturn(List.of(caregivers));
+        index.rebuild();
+    }
+
+    private List<Integer> search(String query) {
+        return index.search(query, null, null, null, null).stream().map(CaregiverListItem::caregiverId).toList();
+    }
+
+    @Test
+    void exactWordOutscoresPrefix() {
+        load(caregiver(1, "Caregiving", null, null),
+             caregiver(2, "Care", null, null));
+
+        assertThat(search("care")).containsExactly(2, 1);
+    }
+
+    @Test
+    void prefixMatchesCountHalf() {
+        // prefix in specialties (3 / 2) beats an exact match in the bio (1)
+        load(caregiver(1, null, null, "Wound"),
+             caregiver(2, "Wounds", null, null));
+
+        assertThat(search("wou")).containsExactly(2, 1);
+        assertThat(search("wound")).containsExactly(2, 1);
+    }
+
+    @Test
+    void fieldsAreWeighted() {
+        load(caregiver(1, null, null, "dementia"),
+             caregiver(2, null, "dementia", null),
+             caregiver(3, "dementia", null, null));
+
+        assertThat(search("dementia")).containsExactly(3, 2, 1);
+    }
+
+    @Test
+    void pluralsMatchTheirSingular() {
+        load(caregiver(1, "Wound dressings", null, null),
+             caregiver(2, "Fitness classes", null, null));
+
+        assertThat(search("dressing")).containsExactly(1);
+        assertThat(search("Wounds")).containsExactly(1);
+        // "ss" and short words are not plurals
+        assertThat(search("fitness")).containsExactly(2);
+        assertThat(search("class")).containsExactly(2);
+    }
+
+    @Test
+    void everyWordMustMatch() {
+        load(caregiver(1, "Dementia", null, null),
+             caregiver(2, "Dementia, wound care", null, null),
+             caregiver(3, "Wound care", null, null));
+
+        assertThat(search("dementia wound")).containsExactly(2);
+        assertThat(search("dementia xyz")).isEmpty();
+    }
+
+    @Test
+    void tiesGoToTheHigherRatingThenTheLowerId() {
+        load(caregiver(1, "Elderly", null, null, "4.0", true, 1),
+             caregiver(2, "Elderly", null, null, "4.8", true, 1),
+             caregiver(3, "Elderly", null, null, null, true, 1),
+             caregiver(4, "Elderly", null, null, "4.0", true, 1));
+
+        assertThat(search("elderly")).containsExactly(2, 1, 4, 3);
+        assertThat(search(" ")).containsExactly(2, 1, 4, 3);
+    }
+
+    @Test
+    void filtersAndLimit() {
+        load(caregiver(1, "Elderly", null, null, "4.5", true, 1),
+             caregiver(2, "Elderly", null, null, "4.9", false, 1),
+             caregiver(3, "Elderly", null, null, "3.0", true, 2));
+
+        assertThat(index.search("elderly", true, null, null, null)).extracting(CaregiverListItem::caregiverId)
+                .containsExactly(1, 3);
+        assertThat(index.search("elderly", null, 2, null, null)).extracting(CaregiverListItem::caregiverId)
+                .containsExactly(3);
+        assertThat(index.search("elderly", null, null, new BigDecimal("4.5"), null))
+                .extracting(CaregiverListItem::caregiverId).containsExactly(2, 1);
+        assertThat(index.search("elderly", null, null, null, 1)).extracting(CaregiverListItem::caregiverId)
+                .containsExactly(2);
+    }
+
+    @Test
+    void putReplacesTheIndexedWords() {
+        load(caregiver(1, "Dementia", null, null));
+
+        index.put(caregiver(1, "Physiotherapy", null, null));
+        index.put(caregiver(2, "Dementia", null, null));
+
+        assertThat(search("dementia")).containsExactly(2);
+        assertThat(search("physio")).containsExactly(1);
+        assertThat(index.get(1).specialties()).isEqualTo("Physiotherapy");
+    }
+
+    @Test
+    void removeDropsTheCaregiver() {
+        load(caregiver(1, "Dementia", null, null), caregiver(2, "Dementia", null, null));
+
+        index.remove(1);
+
+        assertThat(search("dementia")).containsExactly(2);
+        assertThat(index.get(1)).isNull();
+    }
+
+    @Test
+    void changesDuringARebuildAreKept() {
+        CaregiverListItem deleted = caregiver(1, "Dementia", null, null);
+        CaregiverListItem saved = caregiver(2, "Dementia", null, null);
+        // the rows were read before the save and the delete landed
+        when(caregiverRepository.findAllListItems()).thenAnswer(invocation -> {
+            index.put(saved);
+            index.remove(1);
+            return List.of(deleted);
+        });
+
+        index.rebuild();
+
+        assertThat(search("dementia")).containsExactly(2);
+    }
+
+    @Test
+    void loadsOnFirstUse() {
+        when(caregiverRepository.findAllListItems()).thenReturn(List.of(caregiver(1, "Dementia", null, null)));
+
+        assertThat(search("dementia")).containsExactly(1);
+        assertThat(index.get(1)).isNotNull();
+        verify(caregiverRepository, times(1)).findAllListItems();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CaregiverDistance;
+import com.example.demo.dto.CaregiverListItem;
+import com.example.demo.dto.GeoPoint;
+import com.example.demo.service.CaregiverLocator.Neighbour;
+import com.example.demo.service.CaregiverLocator.Position;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CaregiverServiceTest {
+
+    private static final GeoPoint POINT = new GeoPoint(1.3, 103.8);
+    private static final LocalDateTime SEEN = LocalDateTime.of(2026, 3, 2, 12, 0);
+
+    @Mock
+    private CaregiverLocator locator;
+
+    @Mock
+    private CaregiverSearchIndex searchIndex;
+
+    @InjectMocks
+    private CaregiverService caregiverService;
+
+    private static CaregiverListItem caregiver(int id, boolean available) {
+        return new CaregiverListItem(id, 100 + id, "User " + id, "Caregiver " + id, null, null, available, null, null,
+                5, null, null, new BigDecimal("4.5"), null, 1, null);
+    }
+
+    private static Neighbour neighbour(int caregiverId, double distanceMetres) {
+        return new Neighbour(new Position(caregiverId, POINT, SEEN), distanceMetres);
+    }
+
+    /**
+     * The locator offers each neighbour to the filter and returns the accepted ones
+     */
+    @SuppressWarnings("unchecked")
+    private void locate(Neighbour... neighbours) {
+        when(locator.nearest(eq(POINT), anyInt(), any())).thenAnswer(invocation -> {
+            Predicate<Integer> filter = invocation.getArgument(2);
+            List<Neighbour> accepted = new ArrayList<>();
+            for (Neighbour neighbour : neighbours) {
+                if (filter.test(neighbour.position().caregiverId())) {
+                    accepted.add(neighbour);
+                }
+            }
+            return accepted;
+        });
+    }
+
+    @Test
+    void nearestFiltersOnAvailability() {
+        when(searchIndex.get(1)).thenReturn(caregiver(1, true));
+        when(searchIndex.get(2)).thenReturn(caregiver(2, false));
+        locate(neighbour(1, 1234.4), neighbour(2, 2000));
+
+        List<CaregiverDistance> nearest = caregiverService.nearest(POINT, 5, true);
+
+        assertThat(nearest).extracting(CaregiverDistance::caregiverId).containsExactly(1);
+        assertThat(nearest.get(0).distanceKm()).isEqualTo(1.234);
+        assertThat(nearest.get(0).name()).isEqualTo("Caregiver 1");
+    }
+
+    @Test
+    void nearestSkipsCaregiversNotInTheIndex() {
+        when(searchIndex.get(1)).thenReturn(null);
+        when(searchIndex.get(2)).thenReturn(caregiver(2, false));
+        locate(neighbour(1, 100), neighbour(2, 200));
+
+        assertThat(caregiverService.nearest(POINT, null, null)).extracting(CaregiverDistance::caregiverId)
+                .containsExactly(2);
+    }
+
+    @Test
+    void nearestSurvivesACaregiverDeletedAfterTheFilter() {
+        // found by the filter, gone by the time a second lookup would run
+        when(searchIndex.get(1)).thenReturn(caregiver(1, true), (CaregiverListItem) null);
+        locate(neighbour(1, 100));
+
+        assertThat(caregiverService.nearest(POINT, 5, null)).extracting(CaregiverDistance::caregiverId)
+                .containsExactly(1);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.GeoPoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GazetteerGeocoderTest {
+
+    private static final GeoPoint CHANGI = new GeoPoint(1.3644, 103.9915);
+    private static final GeoPoint CHANGI_HOSPITAL = new GeoPoint(1.3403, 103.9494);
+    private static final GeoPoint ORCHARD = new GeoPoint(1.3048, 103.8318);
+    private static final GeoPoint KK_HOSPITAL = new GeoPoint(1.3107, 103.8464);
+
+    private final GazetteerGeocoder geocoder = new GazetteerGeocoder(new ByteArrayResource("""
+            # name,lat,lon[,postal sectors]
+            Orchard,1.3048,103.8318,22 23
+            Changi,1.3644,103.9915,49 50 81
+
+            Changi General Hospital,1.3403,103.9494
+            KK Women's and Children's Hospital,1.3107,103.8464
+            """.getBytes(StandardCharsets.UTF_8)));
+
+    @Test
+    void explicitCoordinatesWin() {
+        assertThat(geocoder.geocode(" 1.35, 103.82 ")).contains(new GeoPoint(1.35, 103.82));
+    }
+
+    @Test
+    void placeNamesMatchAsWholeWordsIgnoringCaseAndPunctuation() {
+        assertThat(geocoder.geocode("12 ORCHARD road")).contains(ORCHARD);
+        assertThat(geocoder.geocode("kk women's and children's hospital, ward 5")).contains(KK_HOSPITAL);
+        assertThat(geocoder.geocode("Orchardson Street")).isEmpty();
+    }
+
+    @Test
+    void longestPlaceNameWins() {
+        assertThat(geocoder.geocode("Changi General Hospital, 2 Simei St 3")).contains(CHANGI_HOSPITAL);
+        assertThat(geocoder.geocode("Changi Village")).contains(CHANGI);
+    }
+
+    @Test
+    void earlierPlaceWinsATie() {
+        assertThat(geocoder.geocode("From Orchard to Changi")).contains(ORCHARD);
+    }
+
+    @Test
+    void postalCodeFallsBackToItsDistrict() {
+        assertThat(geocoder.geocode("Blk 123, #05-67, Singapore 229999")).contains(ORCHARD);
+        assertThat(geocoder.geocode("Singapore 819663")).contains(CHANGI);
+        // a seven-digit number is not a postal code, and unknown sectors do not match
+        assertThat(geocoder.geocode("Ref 2299991")).isEmpty();
+        assertThat(geocoder.geocode("Singapore 999999")).isEmpty();
+    }
+
+    @Test
+    void placeNameBeatsPostalCode() {
+        assertThat(geocoder.geocode("Changi, Singapore 229999")).contains(CHANGI);
+    }
+
+    @Test
+    void blankAndUnknownAddresses() {
+        assertThat(geocoder.geocode(null)).isEmpty();
+        assertThat(geocoder.geocode("  ")).isEmpty();
+        assertThat(geocoder.geocode("Nowhere in particular")).isEmpty();
+    }
+
+    @Test
+    void bundledGazetteerLoads() {
+        GazetteerGeocoder bundled = new GazetteerGeocoder(new ClassPathResource("geo/gazetteer.csv"));
+
+        assertThat(bundled.geocode("Changi General Hospital")).contains(CHANGI_HOSPITAL);
+        assertThat(bundled.geocode("Singapore 238801")).contains(ORCHARD);
+    }
+}
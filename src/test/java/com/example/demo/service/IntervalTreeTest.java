@@ -0,0 +1,116 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalTreeTest {
+
+    @Test
+    void touchingIntervalsDoNotOverlap() {
+        IntervalTree tree = new IntervalTree();
+        tree.put(1, 10, 20);
+
+        assertThat(tree.overlapping(20, 30)).isEmpty();
+        assertThat(tree.overlapping(0, 10)).isEmpty();
+        assertThat(tree.overlapsAny(20, 30)).isFalse();
+        assertThat(tree.overlapsAny(0, 10)).isFalse();
+    }
+
+    @Test
+    void overlapByOneAtEitherEnd() {
+        IntervalTree tree = new IntervalTree();
+        tree.put(1, 10, 20);
+
+        assertThat(tree.overlapping(19, 30)).containsExactly(1);
+        assertThat(tree.overlapping(0, 11)).containsExactly(1);
+        assertThat(tree.overlapsAny(19, 30)).isTrue();
+        assertThat(tree.overlapsAny(0, 11)).isTrue();
+    }
+
+    @Test
+    void windowInsideAndAroundAnInterval() {
+        IntervalTree tree = new IntervalTree();
+        tree.put(1, 10, 20);
+
+        assertThat(tree.overlapping(12, 15)).containsExactly(1);
+        assertThat(tree.overlapping(5, 25)).containsExactly(1);
+    }
+
+    @Test
+    void overlappingIsInStartOrder() {
+        IntervalTree tree = new IntervalTree();
+        tree.put(3, 30, 60);
+        tree.put(1, 10, 40);
+        tree.put(2, 20, 25);
+        tree.put(4, 70, 80);
+
+        assertThat(tree.overlapping(22, 35)).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void putReplacesAndRemoveForgets() {
+        IntervalTree tree = new IntervalTree();
+        tree.put(1, 10, 20);
+        tree.put(1, 50, 60);
+
+        assertThat(tree.size()).isEqualTo(1);
+        assertThat(tree.overlapping(10, 20)).isEmpty();
+        assertThat(tree.overlapping(55, 56)).containsExactly(1);
+
+        tree.remove(1);
+        tree.remove(2);
+
+        assertThat(tree.contains(1)).isFalse();
+        assertThat(tree.overlapsAny(0, 100)).isFalse();
+    }
+
+    @Test
+    void sameStartDifferentIds() {
+        IntervalTree tree = new IntervalTree();
+        tree.put(2, 10, 20);
+        tree.put(1, 10, 30);
+        tree.remove(2);
+
+        assertThat(tree.overlapping(25, 26)).containsExactly(1);
+        assertThat(tree.overlapping(10, 11)).containsExactly(1);
+    }
+
+    @Test
+    void matchesABruteForceScanThroughInsertsAndRemoves() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        Map<Integer, long[]> intervals = new HashMap<>();
+        for (int step = 0; step < 5000; step++) {
+            int id = random.nextInt(300);
+            if (random.nextInt(4) == 0) {
+                tree.remove(id);
+                intervals.remove(id);
+            } else {
+                long start = random.nextInt(10_000);
+                long end = start + 1 + random.nextInt(200);
+                tree.put(id, start, end);
+                intervals.put(id, new long[] { start, end });
+            }
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(300);
+            List<Integer> expected = new ArrayList<>();
+            intervals.entrySet().stream()
+                    .filter(e -> e.getValue()[0] < end && e.getValue()[1] > start)
+                    .sorted((a, b) -> a.getValue()[0] != b.getValue()[0]
+                            ? Long.compare(a.getValue()[0], b.getValue()[0])
+                            : Integer.compare(a.getKey(), b.getKey()))
+                    .forEach(e -> expected.add(e.getKey()));
+
+            assertThat(tree.overlapping(start, end)).isEqualTo(expected);
+            assertThat(tree.overlapsAny(start, end)).isEqualTo(!expected.isEmpty());
+            assertThat(tree.size()).isEqualTo(intervals.size());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.service;
+
+import com.example.demo.service.WeeklyAvailability.TimeSlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WeeklyAvailabilityTest {
+
+    // 2026-01-05 is a Monday
+    private static LocalDateTime at(int day, int hour, int minute) {
+        return LocalDateTime.of(2026, 1, day, hour, minute);
+    }
+
+    @Test
+    void dayRangeWithTimes() {
+        WeeklyAvailability availability = WeeklyAvailability.parse("Mon-Fri 09:00-17:00");
+
+        assertThat(availability.restricted()).isTrue();
+        assertThat(availability.slots()).containsOnlyKeys(
+                DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+        assertThat(availability.slots().get(DayOfWeek.MONDAY)).containsExactly(new TimeSlot(9 * 60, 17 * 60));
+    }
+
+    @Test
+    void coversUpToTheSlotBoundaries() {
+        WeeklyAvailability availability = WeeklyAvailability.parse("Mon-Fri 09:00-17:00");
+
+        assertThat(availability.covers(at(5, 9, 0), at(5, 17, 0))).isTrue();
+        assertThat(availability.covers(at(5, 8, 59), at(5, 10, 0))).isFalse();
+        assertThat(availability.covers(at(5, 16, 0), at(5, 17, 1))).isFalse();
+        assertThat(availability.covers(at(10, 10, 0), at(10, 11, 0))).isFalse(); // Saturday
+    }
+
+    @Test
+    void meridiemAndShorthandTimes() {
+        assertThat(WeeklyAvailability.parse("Tuesday 9am - 5:30pm").slots().get(DayOfWeek.TUESDAY))
+                .containsExactly(new TimeSlot(9 * 60, 17 * 60 + 30));
+        assertThat(WeeklyAvailability.parse("Wed 9-5").slots().get(DayOfWeek.WEDNESDAY))
+                .containsExactly(new TimeSlot(9 * 60, 17 * 60));
+        assertThat(WeeklyAvailability.parse("Thu 1-5pm").slots().get(DayOfWeek.THURSDAY))
+                .containsExactly(new TimeSlot(13 * 60, 17 * 60));
+        assertThat(WeeklyAvailability.parse("Fri 8:00 to midnight").slots().get(DayOfWeek.FRIDAY))
+                .containsExactly(new TimeSlot(8 * 60, 24 * 60));
+    }
+
+    @Test
+    void overnightSlotContinuesOnTheNextDay() {
+        WeeklyAvailability availability = WeeklyAvailability.parse("Fri 22:00-06:00");
+
+        assertThat(availability.slots().get(DayOfWeek.FRIDAY)).containsExactly(new TimeSlot(22 * 60, 24 * 60));
+        assertThat(availability.slots().get(DayOfWeek.SATURDAY)).containsExactly(new TimeSlot(0, 6 * 60));
+        assertThat(availability.covers(at(9, 23, 0), at(10, 5, 0))).isTrue();
+        assertThat(availability.covers(at(9, 23, 0), at(10, 7, 0))).isFalse();
+    }
+
+    @Test
+    void severalGroupsAndDaysOff() {
+        WeeklyAvailability availability = WeeklyAvailability.parse("Mon-Fri 9-5, Sat 10-2, Sun off");
+
+        assertThat(availability.slots().get(DayOfWeek.SATURDAY)).containsExactly(new TimeSlot(10 * 60, 14 * 60));
+        assertThat(availability.slots().get(DayOfWeek.SUNDAY)).isEmpty();
+        assertThat(availability.covers(at(11, 10, 0), at(11, 11, 0))).isFalse();
+    }
+
+    @Test
+    void daysWithoutTimesAreAvailableAllDay() {
+        WeeklyAvailability availability = WeeklyAvailability.parse("weekends");
+
+        assertThat(availability.slots()).containsOnlyKeys(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+        assertThat(availability.covers(at(10, 0, 0), at(12, 0, 0))).isTrue();
+        assertThat(availability.covers(at(11, 23, 0), at(12, 1, 0))).isFalse(); // into Monday
+    }
+
+    @Test
+    void timesWithoutDaysApplyToEveryDay() {
+        WeeklyAvailability availability = WeeklyAvailability.parse("08:00-12:00, 13:00-18:00");
+
+        assertThat(availability.slots()).hasSize(7);
+        assertThat(availability.slots().get(DayOfWeek.SUNDAY))
+                .containsExactly(new TimeSlot(8 * 60, 12 * 60), new TimeSlot(13 * 60, 18 * 60));
+        assertThat(availability.covers(at(6, 11, 0), at(6, 14, 0))).isFalse();
+    }
+
+    @Test
+    void overlappingSlotsAreMerged() {
+        assertThat(WeeklyAvailability.parse("Mon 9-12, Mon 11-3").slots().get(DayOfWeek.MONDAY))
+                .isEqualTo(List.of(new TimeSlot(9 * 60, 15 * 60)));
+    }
+
+    @Test
+    void allWeekAndUnrestricted() {
+        WeeklyAvailability allWeek = WeeklyAvailability.parse("Available 24/7");
+        assertThat(allWeek.restricted()).isTrue();
+        assertThat(allWeek.covers(at(5, 0, 0), at(12, 0, 0))).isTrue();
+
+        assertThat(WeeklyAvailability.parse(null)).isEqualTo(WeeklyAvailability.UNRESTRICTED);
+        assertThat(WeeklyAvailability.parse("  ")).isEqualTo(WeeklyAvailability.UNRESTRICTED);
+    }
+
+    @Test
+    void unrecognisedTextIsUnrestrictedButNotParsed() {
+        WeeklyAvailability availability = WeeklyAvailability.parse("flexible, call me");
+
+        assertThat(availability.restricted()).isFalse();
+        assertThat(availability.parsed()).isFalse();
+        assertThat(availability.covers(at(5, 3, 0), at(5, 4, 0))).isTrue();
+    }
+}